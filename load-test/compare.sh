@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Compare Tomcat's platform thread pool with virtual threads under the same k6 load (10k connections by default).
+# Needs JDK 21 on the PATH, k6, and an open files limit above the number of connections.
+#   load-test/compare.sh            VUS=2000 DURATION=30s load-test/compare.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+VUS=${VUS:-10000}
+DURATION=${DURATION:-60s}
+PORT=${PORT:-8080}
+JAR=target/card-deck-service-1.0.0.jar
+
+ulimit -n 65536
+mvn -B -q -Pjava21 package -DskipTests
+
+for mode in platform virtual-threads; do
+    profile_args=()
+    if [ "$mode" = virtual-threads ]; then
+        profile_args=(--spring.profiles.active=virtual-threads)
+    fi
+    # Access log off, so both runs measure request handling rather than logging
+    java -Xmx2g -jar "$JAR" --server.port="$PORT" --card-deck.access-log.sample-rate=0 "${profile_args[@]}" \
+        > "target/load-$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf "localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    echo "== $mode"
+    k6 run -q -e BASE_URL="http://localhost:$PORT" -e VUS="$VUS" -e DURATION="$DURATION" \
+        --summary-export "target/k6-$mode.json" load-test/deck-load.js
+    kill "$pid"
+    wait "$pid" || true
+done
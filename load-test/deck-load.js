@@ -0,0 +1,36 @@
+// k6 load test: every virtual user plays its own deck, 10k concurrent connections by default.
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=10000 -e DURATION=60s load-test/deck-load.js
+import http from 'k6/http';
+import {check} from 'k6';
+
+const BASE_URL = `${__ENV.BASE_URL || 'http://localhost:8080'}/api/cards-service/decks`;
+const JSON_HEADERS = {headers: {'Content-Type': 'application/json'}};
+
+export const options = {
+    scenarios: {
+        players: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 10000),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+let deckId;
+
+export default function () {
+    if (!deckId) {
+        const created = http.get(`${BASE_URL}/new`);
+        check(created, {'deck created': r => r.status === 201});
+        deckId = created.json('id');
+    }
+    http.get(`${BASE_URL}/${deckId}/shuffle`);
+    const dealt = http.get(`${BASE_URL}/${deckId}/deal`);
+    check(dealt, {'card dealt': r => r.status === 200});
+    const returned = http.post(`${BASE_URL}/${deckId}/cards`, dealt.body, JSON_HEADERS);
+    check(returned, {'card returned': r => r.status === 204});
+    if (__ITER % 10 === 0) {
+        http.get(`${BASE_URL}/${deckId}`);
+    }
+}
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Compare the default fat jar with the fast-startup production build (Spring AOT, CDS archive, lazy docs and endpoints):
+# time from launch to the first answered request, and resident memory right after it, averaged over RUNS starts.
+#   load-test/startup.sh            RUNS=10 load-test/startup.sh
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+JAR=card-deck-service-1.0.0.jar
+
+mvn -B -q clean package -DskipTests
+cp "target/$JAR" target/startup-default.jar
+mvn -B -q -Pproduction package -DskipTests > target/startup-training.log 2>&1
+
+# Milliseconds until GET /decks/new answers, and the VmRSS in KB at that moment
+measure() {
+    local start pid millis rss
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" > target/startup-run.log 2>&1 &
+    pid=$!
+    until curl -sf "localhost:$PORT/api/cards-service/decks/new" > /dev/null; do sleep 0.01; done
+    millis=$((($(date +%s%N) - start) / 1000000))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" || true
+    echo "$millis $rss"
+}
+
+report() {
+    local name=$1 total_ms=0 total_rss=0 millis rss
+    shift
+    for _ in $(seq "$RUNS"); do
+        read -r millis rss < <(measure "$@")
+        total_ms=$((total_ms + millis))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-12s %20d %12d\n' "$name" $((total_ms / RUNS)) $((total_rss / RUNS / 1024))
+}
+
+printf '%-12s %20s %12s\n' build "first request (ms)" "RSS (MB)"
+report default java -jar target/startup-default.jar
+# The class path in the manifest is relative, and CDS checks it: run from target
+report production bash -c "cd target && exec java -XX:SharedArchiveFile=card-deck-service-1.0.0.jsa \
+    -Dspring.aot.enabled=true -jar $JAR --spring.profiles.active=fast-startup \"\$@\"" -
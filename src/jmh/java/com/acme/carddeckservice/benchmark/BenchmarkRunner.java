@@ -0,0 +1,32 @@
+package com.acme.carddeckservice.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class runs the JMH benchmarks once per thread count.
+ * Thread counts are read from the {@code jmh.threads} system property (default {@code 1,8,64}),
+ * all other arguments are regular JMH command line options.
+ * Results of each run are written to {@code target/jmh-result-<threads>-threads.json}.
+ *
+ * @author Viraj Ranaware
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        for (String threads : System.getProperty("jmh.threads", "1,8,64").split(",")) {
+            new Runner(new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-" + threads.trim() + "-threads.json")
+                    .build())
+                    .run();
+        }
+    }
+}
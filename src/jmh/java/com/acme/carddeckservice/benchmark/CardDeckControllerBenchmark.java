@@ -0,0 +1,92 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.controller.CardDeckController;
+import com.acme.carddeckservice.error.CardDeckExceptionHandler;
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.events.DeckEvents;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card validation of {@link CardDeckController}, and answering a deal from an unknown or empty deck
+ * with its error body, called directly without the web stack.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardDeckControllerBenchmark {
+
+    private CardDeckController cardDeckController;
+    private final CardDeckExceptionHandler exceptionHandler = new CardDeckExceptionHandler();
+    private String deckId;
+    private String emptyDeckId;
+    private Card validCard;
+    private Card invalidCard;
+
+    @Setup
+    public void setUp() {
+        CardDeckService cardDeckService = new CardDeckService();
+        cardDeckController = new CardDeckController(cardDeckService, new DeckResponseCache(new ObjectMapper(), 0),
+                new DeckEvents(1, Duration.ZERO, 1));
+        deckId = cardDeckService.createNewDeck().getId();
+        emptyDeckId = cardDeckService.createNewDeck().getId();
+        cardDeckService.dealCards(emptyDeckId, 52);
+        validCard = Card.of("Spades", "Queen");
+        invalidCard = Card.of("Stars", "Queen");
+    }
+
+    @Benchmark
+    public Card validateCard() {
+        cardDeckController.validateCard(validCard);
+        return validCard;
+    }
+
+    @Benchmark
+    public Object validateInvalidCard() {
+        try {
+            cardDeckController.validateCard(invalidCard);
+            return invalidCard;
+        } catch (InvalidInputException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object dealFromUnknownDeck() {
+        try {
+            return cardDeckController.dealCard("unknown");
+        } catch (NotFoundException e) {
+            return exceptionHandler.handleNotFoundException(e);
+        }
+    }
+
+    @Benchmark
+    public Object dealFromEmptyDeck() {
+        try {
+            return cardDeckController.dealCard(emptyDeckId);
+        } catch (NotFoundException e) {
+            return exceptionHandler.handleNotFoundException(e);
+        }
+    }
+}
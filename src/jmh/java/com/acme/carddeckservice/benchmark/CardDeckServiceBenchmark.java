@@ -0,0 +1,139 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
+import com.acme.carddeckservice.service.CardDeckService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link CardDeckService} with 10^3 to 10^6 live decks.
+ * Each operation picks a random deck, so threads mostly work on different decks.
+ * Run with {@code -prof gc} to see allocation rates.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CardDeckServiceBenchmark {
+
+    private static final int ROUND_CARDS = 10;
+    private static final DeckOperations.Request DEAL_ROUND = new DeckOperations.Request(null, List.of(
+            new DeckOperations.Operation(DeckOperations.SHUFFLE, null, null),
+            new DeckOperations.Operation(DeckOperations.DEAL, ROUND_CARDS, null)));
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int deckCount;
+
+    private CardDeckService cardDeckService;
+    private String[] deckIds;
+
+    @Setup
+    public void setUp() {
+        cardDeckService = new CardDeckService();
+        deckIds = new String[deckCount];
+        for (int i = 0; i < deckCount; i++) {
+            deckIds[i] = cardDeckService.createNewDeck().getId();
+        }
+    }
+
+    /**
+     * Create a deck and drop it again, so the number of decks stays at deckCount
+     */
+    @Benchmark
+    public Deck createNewDeck() {
+        Deck deck = cardDeckService.createNewDeck();
+        cardDeckService.deleteDeck(deck.getId());
+        return deck;
+    }
+
+    @Benchmark
+    public Deck getDeck() {
+        return cardDeckService.getDeck(randomDeckId());
+    }
+
+    /**
+     * Deal a card and return it, so decks never run empty
+     */
+    @Benchmark
+    public Card dealAndReturnCard() {
+        String deckId = randomDeckId();
+        Card card = cardDeckService.dealCard(deckId);
+        cardDeckService.returnCard(deckId, card);
+        return card;
+    }
+
+    @Benchmark
+    public String shuffleDeck() {
+        String deckId = randomDeckId();
+        cardDeckService.shuffleDeck(deckId);
+        return deckId;
+    }
+
+    /**
+     * A round of a game as single operations: shuffle, deal 10 cards and return them one by one
+     */
+    @Benchmark
+    public List<Card> playRound() {
+        String deckId = randomDeckId();
+        cardDeckService.shuffleDeck(deckId);
+        List<Card> cards = cardDeckService.dealCards(deckId, ROUND_CARDS);
+        for (Card card : cards) {
+            cardDeckService.returnCard(deckId, card);
+        }
+        return cards;
+    }
+
+    /**
+     * The same round in two batches of operations, one with the shuffle and the deal and one with the returns
+     */
+    @Benchmark
+    public List<Card> playRoundInBatches() {
+        String deckId = randomDeckId();
+        List<Card> cards = cardDeckService.applyOperations(deckId, DEAL_ROUND).results().get(1).cards();
+        List<DeckOperations.Operation> returns = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            returns.add(new DeckOperations.Operation(DeckOperations.RETURN, null, card));
+        }
+        cardDeckService.applyOperations(deckId, new DeckOperations.Request(null, returns));
+        return cards;
+    }
+
+    @Benchmark
+    public List<String> getAllDeckIds() {
+        return cardDeckService.getAllDeckIds();
+    }
+
+    @Benchmark
+    public List<String> getDeckIdPage() {
+        return cardDeckService.getDeckIds(randomDeckId(), 100);
+    }
+
+    @Benchmark
+    public int getDeckCount() {
+        return cardDeckService.getDeckCount();
+    }
+
+    private String randomDeckId() {
+        return deckIds[ThreadLocalRandom.current().nextInt(deckIds.length)];
+    }
+}
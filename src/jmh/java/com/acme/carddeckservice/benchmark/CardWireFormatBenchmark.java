@@ -0,0 +1,75 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.codec.CardBinaryCodec;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the card wire formats: writing a 5 card hand and reading a returned card
+ * as JSON objects, as JSON short codes and in the compact {@link CardBinaryCodec} format.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardWireFormatBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final byte[] cardJson = "{\"suit\":\"Hearts\",\"rank\":\"Queen\"}".getBytes();
+    private final byte[] cardShortCode = "\"QH\"".getBytes();
+    private final byte[] cardBinary = {10};
+    private List<Card> hand;
+
+    @Setup
+    public void setUp() {
+        hand = new ArrayList<>();
+        for (int code = 0; code < 5; code++) {
+            hand.add(Cards.of(code * 7));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeHandJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(hand);
+    }
+
+    @Benchmark
+    public byte[] writeHandBinary() {
+        return CardBinaryCodec.encode(hand);
+    }
+
+    @Benchmark
+    public Card readCardJson() throws Exception {
+        return objectMapper.readValue(cardJson, Card.class);
+    }
+
+    @Benchmark
+    public Card readCardShortCode() throws Exception {
+        return objectMapper.readValue(cardShortCode, Card.class);
+    }
+
+    @Benchmark
+    public Card readCardBinary() {
+        return CardBinaryCodec.decodeCard(cardBinary);
+    }
+}
@@ -0,0 +1,78 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.CompactDeck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deal, return and shuffle throughput of the deck container.
+ * {@code copyOnWrite} is the previous {@code CopyOnWriteArrayList<Card>} storage, {@code compact} is {@link CompactDeck}.
+ * Every benchmark thread works on its own deck, as independent games do.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckContainerBenchmark {
+
+    @Param({"copyOnWrite", "compact"})
+    private String container;
+
+    private List<Card> copyOnWriteDeck;
+    private CompactDeck compactDeck;
+
+    @Setup
+    public void setUp() {
+        if ("copyOnWrite".equals(container)) {
+            copyOnWriteDeck = new CopyOnWriteArrayList<>();
+            for (int code = 0; code < Cards.DECK_SIZE; code++) {
+                copyOnWriteDeck.add(Cards.of(code));
+            }
+        } else {
+            compactDeck = new CompactDeck();
+        }
+    }
+
+    @Benchmark
+    public Object dealAndReturn() {
+        if (compactDeck == null) {
+            Card card = copyOnWriteDeck.remove(0);
+            copyOnWriteDeck.add(card);
+            return card;
+        }
+        int code = compactDeck.deal();
+        compactDeck.add(code);
+        return code;
+    }
+
+    @Benchmark
+    public Object shuffle() {
+        if (compactDeck == null) {
+            Collections.shuffle(copyOnWriteDeck);
+            return copyOnWriteDeck;
+        }
+        compactDeck.shuffle(ThreadLocalRandom.current());
+        return compactDeck;
+    }
+}
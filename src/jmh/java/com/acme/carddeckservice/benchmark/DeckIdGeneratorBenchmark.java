@@ -0,0 +1,69 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckIdGenerator;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.NodeDeckIdGenerator;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import com.acme.carddeckservice.service.TimeOrderedDeckIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the deck ID generators, alone and on the {@link CardDeckService#createNewDeck()} path.
+ * Generator and service are shared by all benchmark threads.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeckIdGeneratorBenchmark {
+
+    @Param({"sequence", "time-ordered", "node"})
+    private String generator;
+
+    private DeckIdGenerator deckIdGenerator;
+    private CardDeckService cardDeckService;
+
+    @Setup
+    public void setUp() {
+        deckIdGenerator = switch (generator) {
+            case "sequence" -> new SequenceDeckIdGenerator();
+            case "time-ordered" -> new TimeOrderedDeckIdGenerator();
+            default -> new NodeDeckIdGenerator("n1");
+        };
+        cardDeckService = new CardDeckService(deckIdGenerator, new FastShuffleStrategy(), List.of());
+    }
+
+    @Benchmark
+    public String nextId() {
+        return deckIdGenerator.nextId();
+    }
+
+    /**
+     * Create a deck and drop it again, so the deck map stays small during the run
+     */
+    @Benchmark
+    public Deck createDeck() {
+        Deck deck = cardDeckService.createNewDeck();
+        cardDeckService.deleteDeck(deck.getId());
+        return deck;
+    }
+}
@@ -0,0 +1,60 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering an unchanged deck: Jackson serialization of the {@link Deck} on every read
+ * versus the cached bytes of {@link DeckResponseCache}.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeckResponseCacheBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DeckResponseCache deckResponseCache;
+    private Deck deck;
+
+    @Setup
+    public void setUp() {
+        deckResponseCache = new DeckResponseCache(objectMapper, 32 << 20);
+        CardDeckService cardDeckService = new CardDeckService(
+                new SequenceDeckIdGenerator(),
+                new FastShuffleStrategy(), List.of(deckResponseCache));
+        deck = cardDeckService.createNewDeck();
+    }
+
+    @Benchmark
+    public byte[] serializeDeck() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(deck);
+    }
+
+    @Benchmark
+    public byte[] cachedDeck() {
+        return deckResponseCache.get(deck).json().bytes();
+    }
+}
@@ -0,0 +1,89 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.persistence.DeckPersistence;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup recovery of {@link DeckPersistence} with 10^6 decks, each created, shuffled and dealt from.
+ * {@code journal} replays every record, {@code snapshot} loads a snapshot taken after all changes.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    @Param({"1000000"})
+    private int deckCount;
+
+    @Param({"journal", "snapshot"})
+    private String source;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("deck-recovery");
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService cardDeckService = newService(persistence);
+        for (int i = 0; i < deckCount; i++) {
+            Deck deck = cardDeckService.createNewDeck();
+            cardDeckService.shuffleDeck(deck.getId());
+            cardDeckService.dealCards(deck.getId(), 5);
+        }
+        if (source.equals("snapshot")) {
+            persistence.snapshot(cardDeckService);
+        }
+        persistence.destroy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CardDeckService recover() throws IOException {
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService cardDeckService = newService(persistence);
+        persistence.recover(cardDeckService);
+        return cardDeckService;
+    }
+
+    private static CardDeckService newService(DeckPersistence persistence) {
+        return new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of(persistence));
+    }
+}
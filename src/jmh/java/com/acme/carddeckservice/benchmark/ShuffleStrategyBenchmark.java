@@ -0,0 +1,70 @@
+package com.acme.carddeckservice.benchmark;
+
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SecureShuffleStrategy;
+import com.acme.carddeckservice.service.SeededShuffleStrategy;
+import com.acme.carddeckservice.service.ShuffleStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuffle throughput of each {@link ShuffleStrategy}. The strategy is shared by all benchmark threads,
+ * every thread shuffles its own deck.
+ *
+ * @author Viraj Ranaware
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShuffleStrategyBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Strategy {
+        @Param({"fast", "secure", "seeded"})
+        private String strategy;
+
+        private ShuffleStrategy shuffleStrategy;
+
+        @Setup
+        public void setUp() {
+            shuffleStrategy = switch (strategy) {
+                case "fast" -> new FastShuffleStrategy();
+                case "secure" -> new SecureShuffleStrategy();
+                default -> new SeededShuffleStrategy(42);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Decks {
+        @Param({"1", "6"})
+        private int decks;
+
+        private CompactDeck deck;
+
+        @Setup
+        public void setUp() {
+            deck = new CompactDeck(decks);
+        }
+    }
+
+    @Benchmark
+    public CompactDeck shuffle(Strategy strategy, Decks decks) {
+        strategy.shuffleStrategy.shuffle(decks.deck);
+        return decks.deck;
+    }
+}
@@ -1,104 +1,182 @@
 package com.acme.carddeckservice.aop;
 
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.error.PreconditionFailedException;
 import com.acme.carddeckservice.model.Card;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LoggerAOP class writes one access log line per controller call.
+ * Nothing is built unless INFO is enabled and the call is sampled ({@code card-deck.access-log.sample-rate}).
+ * Request and response bodies are only serialized up to {@code card-deck.access-log.max-body-chars}
+ * characters, 0 turns body capture off. Log I/O runs on the Log4j2 async appender, see {@code log4j2.xml}.
+ * The request ID is not an argument: it is in the Log4j2 {@code ThreadContext}, see {@code RequestIdFilter},
+ * and written with every log line by the {@code log4j2.xml} pattern.
+ *
+ * @author Viraj Ranaware
+ */
 @Aspect
 @Component
 public class LoggerAOP {
     private static final Logger LOGGER = LogManager.getLogger();
     public static final String REQUEST_ID = "requestId";
+    private static final String NO_BODY = "{}";
+    private static final String STREAM_BODY = "(stream)";
     private final ObjectMapper objectMapper;
+    private final double sampleRate;
+    private final int maxBodyChars;
 
-    public LoggerAOP(ObjectMapper objectMapper) {
+    public LoggerAOP(ObjectMapper objectMapper,
+                     @Value("${card-deck.access-log.sample-rate:1.0}") double sampleRate,
+                     @Value("${card-deck.access-log.max-body-chars:256}") int maxBodyChars) {
         this.objectMapper = objectMapper;
+        this.sampleRate = sampleRate;
+        this.maxBodyChars = maxBodyChars;
     }
 
-    @Before("execution(* com.acme.carddeckservice.controller.*.*(..))")
-    public void logMethodsEntry(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().getName();
-        Map<String, Object> argumentMap = getAllArguments(joinPoint);
-
-        String requestBodyJson = "{}";
-        Object[] args = joinPoint.getArgs();
-        for (Object arg : args) {
-            if (arg instanceof Card) {
-                try {
-                    requestBodyJson = objectMapper.writeValueAsString(arg);
-                } catch (JsonProcessingException e) {
-                    LOGGER.error("Error while logging request body", e);
-                }
-                break;
-            }
+    @Around("execution(* com.acme.carddeckservice.controller.*.*(..))")
+    public Object logAccess(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!LOGGER.isInfoEnabled() || !isSampled()) {
+            return joinPoint.proceed();
         }
 
-        LOGGER.info("Received request to {} with, request Id: {} and arguments: {} and Request Body: {}",
-                methodName, argumentMap.get(REQUEST_ID),
-                argumentMap.entrySet()
-                        .stream()
-                        .filter(e -> !e.getKey().equals(REQUEST_ID))
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)),
-                requestBodyJson);
-
+        long start = System.nanoTime();
+        Object returnValue;
+        try {
+            returnValue = joinPoint.proceed();
+        } catch (Throwable t) {
+            logAccess(joinPoint, start, t.getClass().getSimpleName(), NO_BODY);
+            throw t;
+        }
 
+        String status = "-";
+        String responseBody = NO_BODY;
+        if (returnValue instanceof ResponseEntity<?> responseEntity) {
+            status = String.valueOf(responseEntity.getStatusCode().value());
+            responseBody = toBody(responseEntity.getBody());
+        }
+        logAccess(joinPoint, start, status, responseBody);
+        return returnValue;
     }
 
-    @AfterReturning(pointcut = "execution(* com.acme.carddeckservice.controller.*.*(..))", returning = "returnValue")
-    public void logMethodsExit(JoinPoint joinPoint, Object returnValue) throws JsonProcessingException {
+    @AfterThrowing(pointcut = "execution(* com.acme.carddeckservice.*.*(..))", throwing = "ex")
+    public void logException(JoinPoint joinPoint, Exception ex) {
+        if (ex instanceof NotFoundException || ex instanceof InvalidInputException
+                || ex instanceof PreconditionFailedException) {
+            // Routine client errors, answered with 4xx and in the access log
+            return;
+        }
         String methodName = joinPoint.getSignature().getName();
-        Map<String, Object> argumentMap = getAllArguments(joinPoint);
+        String className = joinPoint.getTarget().getClass().getSimpleName();
+        LOGGER.error("Exception in method {} of class {}: {}", methodName, className, ex.getMessage(), ex);
+    }
 
-        String responseBodyJson = "{}";
-        HttpHeaders headers = null;
-        if (returnValue instanceof ResponseEntity<?> responseEntity) {
+    private boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
 
-            // Log headers
-            headers = responseEntity.getHeaders();
+    private void logAccess(ProceedingJoinPoint joinPoint, long start, String status, String responseBody) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        String[] parameterNames = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+        Object[] arguments = joinPoint.getArgs();
 
-            // Log response body
-            Object body = responseEntity.getBody();
-            if (body != null) {
-                responseBodyJson = objectMapper.writeValueAsString(body);
+        String requestBody = NO_BODY;
+        StringBuilder args = new StringBuilder(32).append('{');
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof Card) {
+                requestBody = toBody(arguments[i]);
+            } else {
+                if (args.length() > 1) {
+                    args.append(", ");
+                }
+                args.append(parameterNames[i]).append('=').append(arguments[i]);
             }
         }
+        args.append('}');
 
-        LOGGER.info("Sending response from {} with, request Id: {}, Response Body: {} and Headers: {}",
-                methodName, argumentMap.get(REQUEST_ID), responseBodyJson, headers);
+        LOGGER.info("access method={} status={} durationMicros={} args={} request={} response={}",
+                joinPoint.getSignature().getName(), status, micros, args, requestBody, responseBody);
+    }
 
+    /**
+     * Serialize a body as JSON, truncated to maxBodyChars
+     */
+    private String toBody(Object body) {
+        if (body == null || maxBodyChars <= 0) {
+            return NO_BODY;
+        }
+        if (body instanceof StreamingResponseBody) {
+            return STREAM_BODY;
+        }
+        if (body instanceof byte[] json) {
+            // Already serialized, e.g. a cached deck
+            return new String(json, 0, Math.min(json.length, maxBodyChars), StandardCharsets.UTF_8);
+        }
+        BoundedWriter writer = new BoundedWriter(maxBodyChars);
+        try {
+            objectMapper.writeValue(writer, body);
+        } catch (IOException e) {
+            // Body exceeded maxBodyChars, keep the truncated prefix
+        }
+        return writer.toString();
     }
 
+    /**
+     * A Writer that keeps the first {@code limit} characters and fails on anything beyond,
+     * so serialization of a large body is abandoned as soon as the limit is reached.
+     */
+    private static final class BoundedWriter extends Writer {
+        private final StringBuilder buffer;
+        private final int limit;
+        private boolean truncated;
+
+        private BoundedWriter(int limit) {
+            this.buffer = new StringBuilder(Math.min(limit, 256));
+            this.limit = limit;
+        }
 
-    @AfterThrowing(pointcut = "execution(* com.acme.carddeckservice.*.*(..))", throwing = "ex")
-    public void logException(JoinPoint joinPoint, Exception ex) {
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        LOGGER.error("Exception in method {} of class {}: {}", methodName, className, ex.getMessage(), ex);
-    }
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int remaining = limit - buffer.length();
+            buffer.append(chars, offset, Math.min(length, remaining));
+            if (length > remaining) {
+                truncated = true;
+                throw new IOException("Body exceeds " + limit + " characters");
+            }
+        }
 
-    private Map<String, Object> getAllArguments(JoinPoint joinPoint) {
-        Object[] arguments = joinPoint.getArgs();
-        Map<String, Object> argumentMap = new HashMap<>();
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        String[] parameterNames = methodSignature.getParameterNames();
-        for (int i = 0; i < parameterNames.length; i++) {
-            argumentMap.put(parameterNames[i], arguments[i]);
+        @Override
+        public void flush() {
+            // Nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+
+        @Override
+        public String toString() {
+            return truncated ? buffer.append("...").toString() : buffer.toString();
         }
-        return argumentMap;
     }
 }
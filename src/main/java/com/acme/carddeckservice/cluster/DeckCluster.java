@@ -0,0 +1,115 @@
+package com.acme.carddeckservice.cluster;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * The DeckCluster class knows which node of the cluster owns a deck. It holds the current {@link ShardRing}
+ * and the shards this node owns on it. The ring is replaced as a whole when nodes join or leave, see
+ * {@link ShardRebalancer}, so readers never see a half updated assignment. Shards whose decks could not be
+ * handed over to their new owner are retained: this node keeps owning them until the change is applied again.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckCluster {
+    private final String nodeId;
+    private volatile Assignment assignment;
+
+    /**
+     * @param nodeId ID of this node, one of the nodes of the ring
+     * @param ring   The initial ring
+     * @throws IllegalArgumentException This node is not on the ring.
+     */
+    public DeckCluster(String nodeId, ShardRing ring) {
+        if (ring.baseUrlOf(nodeId) == null) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not one of the cluster nodes " + ring.nodes().keySet());
+        }
+        this.nodeId = nodeId;
+        this.assignment = new Assignment(ring, owned(ring, nodeId, Set.of()), Set.of());
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public ShardRing ring() {
+        return assignment.ring();
+    }
+
+    void ring(ShardRing ring) {
+        ring(ring, Set.of());
+    }
+
+    /**
+     * @param retained Shards this node keeps although the ring assigns them to another node
+     */
+    void ring(ShardRing ring, Set<Integer> retained) {
+        if (ring.shards() != shards()) {
+            throw new IllegalArgumentException("The number of shards can not change");
+        }
+        this.assignment = new Assignment(ring, owned(ring, nodeId, retained), Set.copyOf(retained));
+    }
+
+    public int shards() {
+        return assignment.ring().shards();
+    }
+
+    public int shardOf(String deckId) {
+        return assignment.ring().shardOf(deckId);
+    }
+
+    /**
+     * @return The shards owned by this node, in ascending order
+     */
+    public int[] ownedShards() {
+        return assignment.owned().clone();
+    }
+
+    /**
+     * @return The number of shards this node retains because their decks could not be handed over
+     */
+    public int retainedShards() {
+        return assignment.retained().size();
+    }
+
+    /**
+     * @return The base URL of the node that owns the deck, or null if this node owns it
+     */
+    public String remoteOwnerOf(String deckId) {
+        Assignment current = assignment;
+        ShardRing ring = current.ring();
+        int shard = ring.shardOf(deckId);
+        String owner = ring.ownerOf(shard);
+        return nodeId.equals(owner) || current.retained().contains(shard) ? null : ring.baseUrlOf(owner);
+    }
+
+    /**
+     * Pick one of the shards of this node for a new deck
+     *
+     * @param random A random int
+     * @throws IllegalStateException This node owns no shards, e.g. after it left the cluster.
+     */
+    int shardForNewDeck(int random) {
+        int[] owned = assignment.owned();
+        if (owned.length == 0) {
+            throw new IllegalStateException("Node " + nodeId + " owns no shards");
+        }
+        return owned[Math.floorMod(random, owned.length)];
+    }
+
+    @Override
+    public String toString() {
+        return "DeckCluster{nodeId=" + nodeId + ", nodes=" + ring().nodes().keySet()
+                + ", ownedShards=" + Arrays.toString(assignment.owned()) + ", retainedShards=" + assignment.retained() + "}";
+    }
+
+    private static int[] owned(ShardRing ring, String nodeId, Set<Integer> retained) {
+        return IntStream.range(0, ring.shards())
+                .filter(shard -> nodeId.equals(ring.ownerOf(shard)) || retained.contains(shard))
+                .toArray();
+    }
+
+    private record Assignment(ShardRing ring, int[] owned, Set<Integer> retained) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.acme.carddeckservice.cluster;
+
+import com.acme.carddeckservice.model.CompactDeck;
+
+/**
+ * A deck handed over from one node to another: its ID, the number of standard decks in it,
+ * the card codes from top to bottom and its version.
+ *
+ * @author Viraj Ranaware
+ */
+public record DeckTransfer(String id, int decks, byte[] order, long version) {
+
+    public static DeckTransfer of(String id, CompactDeck state) {
+        byte[] order = new byte[state.size()];
+        state.copyOrder(order);
+        return new DeckTransfer(id, state.decks(), order, state.version());
+    }
+
+    /**
+     * @return The cards of the deck
+     * @throws IllegalArgumentException The number of decks is out of range, the order is missing or holds a code
+     *                                  that is not a card or more copies of a card than the deck can, or the version
+     *                                  is negative.
+     */
+    public CompactDeck toState() {
+        if (order == null) {
+            throw new IllegalArgumentException("Card order is missing");
+        }
+        return CompactDeck.restore(decks, order, order.length, version);
+    }
+}
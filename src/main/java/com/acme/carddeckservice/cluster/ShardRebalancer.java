@@ -0,0 +1,184 @@
+package com.acme.carddeckservice.cluster;
+
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.PartitionedDeckStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ShardRebalancer class applies nodes joining and leaving the cluster on this node.
+ * The new ring takes effect first, so requests for a shard that moves away are redirected from then on.
+ * Then the decks of exactly those shards are removed here and sent to their new owners, which add them as
+ * new decks. Decks of all other shards stay where they are.
+ * <p>
+ * Every node applies membership changes itself, so a change must be made on all nodes, including the one that
+ * joins or leaves. A request that reaches the new owner between the removal and the arrival of its deck gets
+ * {@code 404}. If the decks of a shard can not be sent, this node takes them back and retains the shard, so requests
+ * for them keep being served here rather than redirected to a node that does not have them. The change then reports
+ * the retained shards and should be made again, which hands them over.
+ *
+ * @author Viraj Ranaware
+ */
+public class ShardRebalancer {
+    public static final String TRANSFER_PATH = "/api/cards-service/cluster/decks";
+    public static final String X_CLUSTER_SECRET = "X-Cluster-Secret";
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final DeckCluster cluster;
+    private final CardDeckService cardDeckService;
+    private final RestClient restClient;
+    // Membership changes are applied one at a time
+    private final Lock lock = new ReentrantLock();
+
+    public ShardRebalancer(DeckCluster cluster, CardDeckService cardDeckService, RestClient restClient) {
+        this.cluster = cluster;
+        this.cardDeckService = cardDeckService;
+        this.restClient = restClient;
+    }
+
+    /**
+     * @return The number of shards this node retains because their decks could not be handed over
+     */
+    public int join(String nodeId, String baseUrl) {
+        lock.lock();
+        try {
+            return apply(cluster.ring().withNode(nodeId, baseUrl));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of shards this node retains because their decks could not be handed over
+     */
+    public int leave(String nodeId) {
+        lock.lock();
+        try {
+            return apply(cluster.ring().withoutNode(nodeId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add decks handed over by another node. All decks are checked first, so they are either adopted or,
+     * if one is not valid, all left with the sender.
+     *
+     * @return The number of decks added, decks whose ID is already taken are skipped
+     * @throws InvalidInputException A deck is not valid or handed over twice, see {@link DeckTransfer#toState()}.
+     */
+    public int adopt(List<DeckTransfer> transfers) {
+        Map<String, CompactDeck> states = new LinkedHashMap<>();
+        for (DeckTransfer transfer : transfers) {
+            if (transfer == null) {
+                throw new InvalidInputException("Deck handed over is missing");
+            }
+            if (!Deck.isValidId(transfer.id())) {
+                throw new InvalidInputException("Deck ID must be 1 to " + Deck.MAX_ID_LENGTH
+                        + " ASCII characters: " + transfer.id());
+            }
+            CompactDeck state;
+            try {
+                state = transfer.toState();
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Deck " + transfer.id() + " handed over is not valid: " + e.getMessage());
+            }
+            if (states.put(transfer.id(), state) != null) {
+                throw new InvalidInputException("Deck " + transfer.id() + " is handed over twice");
+            }
+        }
+        int adopted = 0;
+        for (Map.Entry<String, CompactDeck> transfer : states.entrySet()) {
+            if (cardDeckService.adoptDeck(transfer.getKey(), transfer.getValue())) {
+                adopted++;
+            } else {
+                LOGGER.warn("Deck {} handed over to this node already exists", transfer.getKey());
+            }
+        }
+        return adopted;
+    }
+
+    private int apply(ShardRing ring) {
+        // Retained shards count as owned here, so applying a change again hands them over
+        int[] owned = cluster.ownedShards();
+        cluster.ring(ring);
+        String self = cluster.nodeId();
+        Map<String, List<Integer>> outgoing = new LinkedHashMap<>();
+        Set<Integer> retained = new TreeSet<>();
+        for (int shard : owned) {
+            String owner = ring.ownerOf(shard);
+            if (owner == null) {
+                retained.add(shard);
+            } else if (!self.equals(owner)) {
+                outgoing.computeIfAbsent(owner, node -> new ArrayList<>()).add(shard);
+            }
+        }
+        LOGGER.info("Cluster nodes are now {}, {} shards move away from node {}", ring.nodes().keySet(),
+                outgoing.values().stream().mapToInt(List::size).sum(), self);
+        outgoing.forEach((node, shards) -> {
+            if (!send(node, ring.baseUrlOf(node), shards)) {
+                retained.addAll(shards);
+            }
+        });
+        if (!retained.isEmpty()) {
+            cluster.ring(ring, retained);
+            LOGGER.warn("Node {} retains shards {} until the change is applied again", self, retained);
+        }
+        return retained.size();
+    }
+
+    /**
+     * Remove the decks of the shards here and send them to their new owner
+     *
+     * @return Whether the owner has them now; if not, they are back here
+     */
+    private boolean send(String node, String baseUrl, List<Integer> shards) {
+        List<DeckTransfer> decks = new ArrayList<>();
+        for (int shard : shards) {
+            for (Deck deck : List.copyOf(store().decksIn(shard))) {
+                CompactDeck state = cardDeckService.releaseDeck(deck);
+                if (state != null) {
+                    decks.add(DeckTransfer.of(deck.getId(), state));
+                }
+            }
+        }
+        if (decks.isEmpty()) {
+            return true;
+        }
+        try {
+            restClient.post()
+                    .uri(baseUrl + TRANSFER_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(decks)
+                    .retrieve()
+                    .toBodilessEntity();
+            LOGGER.info("Handed {} decks over to node {}", decks.size(), node);
+            return true;
+        } catch (RestClientException e) {
+            LOGGER.error("Could not hand {} decks over to node {}, keeping them: {}", decks.size(), node, e.getMessage());
+            adopt(decks);
+            return false;
+        }
+    }
+
+    private PartitionedDeckStore store() {
+        if (cardDeckService.getStore() instanceof PartitionedDeckStore store) {
+            return store;
+        }
+        throw new IllegalStateException("Cluster nodes need a partitioned deck store");
+    }
+}
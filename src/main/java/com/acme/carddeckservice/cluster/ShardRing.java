@@ -0,0 +1,165 @@
+package com.acme.carddeckservice.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ShardRing class assigns a fixed number of shards to the nodes of a cluster by consistent hashing.
+ * Every node is placed on a hash ring at {@value #POINTS_PER_NODE} points, and a shard belongs to the node
+ * of the first point at or after the shard's own position. A node that joins only takes over the shards
+ * next to its points, and the shards of a node that leaves go to the nodes that follow it,
+ * so all other shards keep their owner.
+ * <p>
+ * A ring is immutable. Owners of all shards are computed once, so finding the owner of a deck is an array lookup.
+ *
+ * @author Viraj Ranaware
+ */
+public final class ShardRing {
+    static final int POINTS_PER_NODE = 128;
+
+    private final Map<String, String> nodes;
+    private final String[] owners;
+
+    /**
+     * @param nodes  The base URL of each node by node ID, e.g. {@code n1 -> http://localhost:8081}
+     * @param shards The number of shards
+     * @throws IllegalArgumentException There are no shards, or a node ID is not alphanumeric.
+     */
+    public ShardRing(Map<String, String> nodes, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive");
+        }
+        nodes.keySet().forEach(ShardRing::checkNodeId);
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        this.owners = assign(this.nodes.keySet().toArray(String[]::new), shards);
+    }
+
+    /**
+     * Parse a node list of the form {@code n1=http://host1:8080,n2=http://host2:8080}
+     */
+    public static ShardRing parse(String nodeList, int shards) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String node : nodeList.split(",")) {
+            if (node.isBlank()) {
+                continue;
+            }
+            int separator = node.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Node must be <node-id>=<base-url>: " + node);
+            }
+            nodes.put(node.substring(0, separator).trim(), node.substring(separator + 1).trim());
+        }
+        return new ShardRing(nodes, shards);
+    }
+
+    public ShardRing withNode(String nodeId, String baseUrl) {
+        Map<String, String> joined = new LinkedHashMap<>(nodes);
+        joined.put(nodeId, baseUrl);
+        return new ShardRing(joined, owners.length);
+    }
+
+    public ShardRing withoutNode(String nodeId) {
+        Map<String, String> left = new LinkedHashMap<>(nodes);
+        left.remove(nodeId);
+        return new ShardRing(left, owners.length);
+    }
+
+    public int shards() {
+        return owners.length;
+    }
+
+    public Map<String, String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The ID of the node that owns the shard, or null if the ring has no nodes
+     */
+    public String ownerOf(int shard) {
+        return owners[shard];
+    }
+
+    public String baseUrlOf(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * The shard of a deck ID: the base 36 number before the first {@code -} of IDs generated by the
+     * {@link ShardedDeckIdGenerator}, a hash of the ID for any other ID.
+     */
+    public int shardOf(String deckId) {
+        int dash = deckId.indexOf('-');
+        if (dash > 0 && dash <= 4) {
+            int shard = 0;
+            for (int i = 0; i < dash; i++) {
+                int digit = Character.digit(deckId.charAt(i), Character.MAX_RADIX);
+                if (digit < 0) {
+                    shard = -1;
+                    break;
+                }
+                shard = shard * Character.MAX_RADIX + digit;
+            }
+            if (shard >= 0 && shard < owners.length) {
+                return shard;
+            }
+        }
+        return (int) Long.remainderUnsigned(hash(deckId), owners.length);
+    }
+
+    private static String[] assign(String[] nodeIds, int shards) {
+        String[] owners = new String[shards];
+        if (nodeIds.length == 0) {
+            return owners;
+        }
+        long[] points = new long[nodeIds.length * POINTS_PER_NODE];
+        String[] pointOwners = new String[points.length];
+        for (int node = 0; node < nodeIds.length; node++) {
+            for (int i = 0; i < POINTS_PER_NODE; i++) {
+                points[node * POINTS_PER_NODE + i] = hash(nodeIds[node] + "#" + i);
+            }
+        }
+        // Sort the points, then look up their owners again by position
+        long[] sorted = points.clone();
+        Arrays.sort(sorted);
+        for (int point = 0; point < points.length; point++) {
+            pointOwners[Arrays.binarySearch(sorted, points[point])] = nodeIds[point / POINTS_PER_NODE];
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            int point = Arrays.binarySearch(sorted, mix(shard * 0x9E3779B97F4A7C15L));
+            if (point < 0) {
+                point = -point - 1;
+            }
+            owners[shard] = pointOwners[point == sorted.length ? 0 : point];
+        }
+        return owners;
+    }
+
+    private static void checkNodeId(String nodeId) {
+        if (nodeId == null || !nodeId.matches("[A-Za-z0-9]+")) {
+            throw new IllegalArgumentException("Node id must be alphanumeric: " + nodeId);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, mixed so that similar keys spread over the whole ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of MurmurHash3
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,45 @@
+package com.acme.carddeckservice.cluster;
+
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.DeckIdGenerator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The ShardedDeckIdGenerator class prefixes the IDs of another generator with one of the shards this node owns
+ * in base 36, e.g. {@code 4f-12}, so any node can tell the owner of a deck from its ID.
+ * Shards are picked at random, which spreads new decks evenly over the shards of the node without a shared counter.
+ *
+ * @author Viraj Ranaware
+ */
+public class ShardedDeckIdGenerator implements DeckIdGenerator {
+    private final DeckIdGenerator delegate;
+    private final DeckCluster cluster;
+
+    /**
+     * @throws IllegalArgumentException The shard prefix makes the IDs of the delegate too long.
+     */
+    public ShardedDeckIdGenerator(DeckIdGenerator delegate, DeckCluster cluster) {
+        this.delegate = delegate;
+        this.cluster = cluster;
+        if (maxLength() > Deck.MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Deck IDs with a shard prefix would exceed " + Deck.MAX_ID_LENGTH
+                    + " characters, use a shorter card-deck.node-id");
+        }
+    }
+
+    @Override
+    public int maxLength() {
+        int delegateLength = delegate.maxLength();
+        if (delegateLength == 0) {
+            return 0;
+        }
+        return Integer.toString(cluster.shards() - 1, Character.MAX_RADIX).length() + 1 + delegateLength;
+    }
+
+    @Override
+    public String nextId() {
+        int shard = cluster.shardForNewDeck(ThreadLocalRandom.current().nextInt());
+        return Integer.toString(shard, Character.MAX_RADIX) + '-' + delegate.nextId();
+    }
+}
@@ -0,0 +1,174 @@
+package com.acme.carddeckservice.codec;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.Deck;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The CardBinaryCodec class encodes cards in the compact {@value #MEDIA_TYPE_VALUE} media type:
+ * <ul>
+ *     <li>a card is its code, {@code suit * 13 + rank}, in one byte (see {@link Cards})</li>
+ *     <li>a list is an unsigned 16-bit big-endian count followed by its elements,
+ *     so a list of cards is 2 + n bytes and hands are a list of lists of cards</li>
+ *     <li>a deck is the length of its UTF-8 ID in one byte, the ID and its cards as a list</li>
+ * </ul>
+ * Only a single card is read in this format, as the body of a returned card.
+ *
+ * @author Viraj Ranaware
+ */
+public final class CardBinaryCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.card-deck";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    private static final int MAX_COUNT = 0xFFFF;
+    private static final int MAX_ID_LENGTH = 0xFF;
+
+    private CardBinaryCodec() {
+    }
+
+    /**
+     * @param type The declared type of a value
+     * @return true for a Card, a Deck, a List of Cards and a List of Lists of Cards
+     */
+    public static boolean canEncode(ResolvableType type) {
+        Class<?> valueClass = type.toClass();
+        if (Card.class.isAssignableFrom(valueClass) || Deck.class.isAssignableFrom(valueClass)) {
+            return true;
+        }
+        if (!List.class.isAssignableFrom(valueClass)) {
+            return false;
+        }
+        ResolvableType element = type.asCollection().getGeneric();
+        return Card.class.isAssignableFrom(element.toClass())
+                || (List.class.isAssignableFrom(element.toClass())
+                && Card.class.isAssignableFrom(element.asCollection().getGeneric().toClass()));
+    }
+
+    /**
+     * Encode a card, a deck, a list of cards or hands
+     *
+     * @param value The value, see {@link #canEncode(ResolvableType)}
+     * @return The encoded bytes
+     * @throws IllegalArgumentException The value cannot be encoded
+     */
+    public static byte[] encode(Object value) {
+        if (value instanceof Deck deck) {
+            return encodeDeck(deck);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(sizeOf(value));
+        write(buffer, value);
+        return buffer.array();
+    }
+
+    /**
+     * Decode a card
+     *
+     * @param bytes The encoded card
+     * @return Card The shared card instance
+     * @throws IllegalArgumentException The bytes are not a single card
+     */
+    public static Card decodeCard(byte[] bytes) {
+        if (bytes.length != 1 || bytes[0] < 0 || bytes[0] >= Cards.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid card - expected a single card code 0-" + (Cards.DECK_SIZE - 1));
+        }
+        return Cards.of(bytes[0]);
+    }
+
+    /**
+     * Whether a client prefers this media type over JSON. Clients that accept anything get JSON.
+     *
+     * @param accept The accepted media types of a request
+     * @return true if {@value #MEDIA_TYPE_VALUE} is asked for by name before JSON
+     */
+    public static boolean isPreferred(List<MediaType> accept) {
+        List<MediaType> sorted = new ArrayList<>(accept);
+        // MediaType orders by quality first, then specificity
+        MimeTypeUtils.sortBySpecificity(sorted);
+        for (MediaType mediaType : sorted) {
+            if (MEDIA_TYPE.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encode a deck from a copy of its card codes
+     *
+     * @param deckId The unique ID of the deck
+     * @param order  The card codes, top first
+     * @return The encoded deck
+     * @throws IllegalArgumentException The ID is longer than 255 bytes
+     */
+    public static byte[] encodeDeck(String deckId, byte[] order) {
+        byte[] id = deckId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Deck ID too long for " + MEDIA_TYPE_VALUE + ": " + deckId);
+        }
+        byte[] bytes = new byte[1 + id.length + 2 + order.length];
+        bytes[0] = (byte) id.length;
+        System.arraycopy(id, 0, bytes, 1, id.length);
+        bytes[1 + id.length] = (byte) (order.length >>> 8);
+        bytes[2 + id.length] = (byte) order.length;
+        System.arraycopy(order, 0, bytes, 3 + id.length, order.length);
+        return bytes;
+    }
+
+    private static byte[] encodeDeck(Deck deck) {
+        byte[] order;
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            order = new byte[deck.getState().size()];
+            deck.getState().copyOrder(order);
+        } finally {
+            lock.unlock();
+        }
+        return encodeDeck(deck.getId(), order);
+    }
+
+    private static int sizeOf(Object value) {
+        if (value instanceof Card) {
+            return 1;
+        }
+        if (value instanceof List<?> list) {
+            if (list.size() > MAX_COUNT) {
+                throw new IllegalArgumentException("List too long for " + MEDIA_TYPE_VALUE + ": " + list.size());
+            }
+            int size = 2;
+            for (Object element : list) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        throw new IllegalArgumentException("Cannot encode " + value.getClass().getSimpleName() + " as " + MEDIA_TYPE_VALUE);
+    }
+
+    private static void write(ByteBuffer buffer, Object value) {
+        if (value instanceof Card card) {
+            int code = Cards.codeOf(card);
+            if (code == Cards.NO_CARD) {
+                throw new IllegalArgumentException("Invalid card: " + card);
+            }
+            buffer.put((byte) code);
+        } else {
+            List<?> list = (List<?>) value;
+            buffer.putShort((short) list.size());
+            for (Object element : list) {
+                write(buffer, element);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.acme.carddeckservice.codec;
+
+import com.acme.carddeckservice.model.Card;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+/**
+ * The CardBinaryDecoder class reads a card in {@link CardBinaryCodec#MEDIA_TYPE_VALUE} on the reactive stack.
+ *
+ * @author Viraj Ranaware
+ */
+public class CardBinaryDecoder extends AbstractDataBufferDecoder<Card> {
+
+    public CardBinaryDecoder() {
+        super(CardBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return elementType.toClass() == Card.class && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Card decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType, Map<String, Object> hints) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return CardBinaryCodec.decodeCard(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new DecodingException(e.getMessage(), e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
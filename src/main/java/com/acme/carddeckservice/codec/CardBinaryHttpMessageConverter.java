@@ -0,0 +1,76 @@
+package com.acme.carddeckservice.codec;
+
+import com.acme.carddeckservice.model.Card;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * The CardBinaryHttpMessageConverter class reads and writes {@link CardBinaryCodec#MEDIA_TYPE_VALUE} on the
+ * servlet stack. It is registered after the default converters, so clients that accept anything still get JSON.
+ *
+ * @author Viraj Ranaware
+ */
+public class CardBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public CardBinaryHttpMessageConverter() {
+        super(CardBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CardBinaryCodec.canEncode(ResolvableType.forClass(clazz));
+    }
+
+    /**
+     * Lists are checked with their element type in {@link #canWrite(Type, Class, MediaType)}, not by class
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == Card.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        ResolvableType resolvableType = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        return CardBinaryCodec.canEncode(resolvableType) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(Card.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return CardBinaryCodec.decodeCard(inputMessage.getBody().readNBytes(2));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            byte[] bytes = CardBinaryCodec.encode(value);
+            outputMessage.getHeaders().setContentLength(bytes.length);
+            outputMessage.getBody().write(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.acme.carddeckservice.config;
+
+import com.acme.carddeckservice.cluster.DeckCluster;
+import com.acme.carddeckservice.cluster.ShardRebalancer;
+import com.acme.carddeckservice.cluster.ShardRing;
+import com.acme.carddeckservice.service.CardDeckService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+/**
+ * The CardDeckClusterConfig class spreads decks over the nodes in {@code card-deck.cluster.nodes}
+ * ({@code <node-id>=<base-url>,...}), this node being {@code card-deck.node-id}.
+ * Decks are kept in {@code card-deck.cluster.shards} shards, assigned to the nodes by a {@link ShardRing}.
+ * The nodes authenticate to each other with {@code card-deck.cluster.secret}, which must be the same on all of them.
+ * Without {@code card-deck.cluster.nodes} the service runs as a single instance. Servlet stack only.
+ *
+ * @author Viraj Ranaware
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "card-deck.cluster", name = "nodes")
+public class CardDeckClusterConfig {
+
+    @Bean
+    public DeckCluster deckCluster(@Value("${card-deck.node-id:}") String nodeId,
+                                   @Value("${card-deck.cluster.nodes}") String nodes,
+                                   @Value("${card-deck.cluster.shards:256}") int shards) {
+        return new DeckCluster(nodeId, ShardRing.parse(nodes, shards));
+    }
+
+    /**
+     * @throws IllegalArgumentException {@code card-deck.cluster.secret} is not set.
+     */
+    @Bean
+    public ShardRebalancer shardRebalancer(DeckCluster deckCluster, CardDeckService cardDeckService,
+                                           RestClient.Builder restClientBuilder,
+                                           @Value("${card-deck.cluster.secret:}") String secret) {
+        if (secret.isBlank()) {
+            throw new IllegalArgumentException("card-deck.cluster.secret must be set on every node of a cluster");
+        }
+        RestClient restClient = restClientBuilder.defaultHeader(ShardRebalancer.X_CLUSTER_SECRET, secret).build();
+        return new ShardRebalancer(deckCluster, cardDeckService, restClient);
+    }
+}
@@ -0,0 +1,203 @@
+package com.acme.carddeckservice.config;
+
+import com.acme.carddeckservice.cluster.DeckCluster;
+import com.acme.carddeckservice.cluster.ShardedDeckIdGenerator;
+import com.acme.carddeckservice.events.DeckEvents;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.ConcurrentDeckStore;
+import com.acme.carddeckservice.service.DeckIdGenerator;
+import com.acme.carddeckservice.service.DeckLifecycle;
+import com.acme.carddeckservice.service.DeckMetrics;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import com.acme.carddeckservice.service.DeckStore;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.NodeDeckIdGenerator;
+import com.acme.carddeckservice.service.PartitionedDeckStore;
+import com.acme.carddeckservice.service.RequestIdGenerator;
+import com.acme.carddeckservice.service.SecureShuffleStrategy;
+import com.acme.carddeckservice.service.SeededShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import com.acme.carddeckservice.service.ShuffleStrategy;
+import com.acme.carddeckservice.service.StripedLocks;
+import com.acme.carddeckservice.service.TimeOrderedDeckIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.EndpointExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CardDeckConfig class wires the pluggable parts of the CardDeckService from {@code card-deck.*} properties.
+ *
+ * @author Viraj Ranaware
+ */
+@Configuration
+public class CardDeckConfig {
+
+    /**
+     * With {@code spring.main.lazy-initialization} (the {@code fast-startup} profile) only the OpenAPI UI and the
+     * actuator endpoints are created on first use; the service itself and the request pipeline still start eagerly.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerUnlessDocsOrEndpoint() {
+        return (beanName, beanDefinition, beanType) -> beanType == null || !isDocsOrEndpoint(beanType);
+    }
+
+    private static boolean isDocsOrEndpoint(Class<?> beanType) {
+        if (beanType.getName().startsWith("org.springdoc.")) {
+            return true;
+        }
+        MergedAnnotations annotations = MergedAnnotations.from(beanType);
+        return annotations.isPresent(Endpoint.class) || annotations.isPresent(EndpointExtension.class);
+    }
+
+    /**
+     * Deck ID generator selected by {@code card-deck.id-generator}:
+     * {@code sequence} (default), {@code time-ordered} or {@code node} (requires {@code card-deck.node-id}).
+     * In a cluster the IDs are prefixed with a shard of this node.
+     */
+    @Bean
+    public DeckIdGenerator deckIdGenerator(@Value("${card-deck.id-generator:sequence}") String type,
+                                           @Value("${card-deck.node-id:}") String nodeId,
+                                           ObjectProvider<DeckCluster> deckCluster) {
+        DeckIdGenerator generator = switch (type) {
+            case "sequence" -> new SequenceDeckIdGenerator();
+            case "time-ordered" -> new TimeOrderedDeckIdGenerator();
+            case "node" -> new NodeDeckIdGenerator(nodeId);
+            default -> throw new IllegalArgumentException("Unknown card-deck.id-generator: " + type);
+        };
+        DeckCluster cluster = deckCluster.getIfAvailable();
+        return cluster == null ? generator : new ShardedDeckIdGenerator(generator, cluster);
+    }
+
+    /**
+     * One map of decks, or one map per shard in a cluster, see {@link CardDeckClusterConfig}
+     */
+    @Bean
+    public DeckStore deckStore(ObjectProvider<DeckCluster> deckCluster) {
+        DeckCluster cluster = deckCluster.getIfAvailable();
+        return cluster == null ? new ConcurrentDeckStore() : new PartitionedDeckStore(cluster.shards(), cluster::shardOf);
+    }
+
+    /**
+     * Request IDs for requests without an {@code X-Request-ID} header, prefixed with {@code card-deck.node-id} if set.
+     */
+    @Bean
+    public RequestIdGenerator requestIdGenerator(@Value("${card-deck.node-id:}") String nodeId) {
+        return new RequestIdGenerator(nodeId);
+    }
+
+    /**
+     * Shuffle strategy selected by {@code card-deck.shuffle.strategy}:
+     * {@code fast} (default), {@code secure} or {@code seeded} (uses {@code card-deck.shuffle.seed}).
+     */
+    @Bean
+    public ShuffleStrategy shuffleStrategy(@Value("${card-deck.shuffle.strategy:fast}") String strategy,
+                                           @Value("${card-deck.shuffle.seed:0}") long seed) {
+        return switch (strategy) {
+            case "fast" -> new FastShuffleStrategy();
+            case "secure" -> new SecureShuffleStrategy();
+            case "seeded" -> new SeededShuffleStrategy(seed);
+            default -> throw new IllegalArgumentException("Unknown card-deck.shuffle.strategy: " + strategy);
+        };
+    }
+
+    /**
+     * Deck lifecycle: decks idle for {@code card-deck.lifecycle.ttl} are removed and the least recently touched
+     * decks are evicted above {@code card-deck.lifecycle.max-decks}. Zero turns either off (default).
+     */
+    @Bean
+    public DeckLifecycle deckLifecycle(@Value("${card-deck.lifecycle.ttl:0}") Duration ttl,
+                                       @Value("${card-deck.lifecycle.max-decks:0}") int maxDecks,
+                                       @Value("${card-deck.lifecycle.tick:1s}") Duration tick) {
+        return new DeckLifecycle(ttl, maxDecks, tick);
+    }
+
+    /**
+     * Serialized responses of unchanged decks, at most {@code card-deck.response-cache.max-size} in total.
+     */
+    @Bean
+    public DeckResponseCache deckResponseCache(ObjectMapper objectMapper,
+                                               @Value("${card-deck.response-cache.max-size:32MB}") DataSize maxSize) {
+        return new DeckResponseCache(objectMapper, maxSize.toBytes());
+    }
+
+    /**
+     * Deck change streams: {@code card-deck.events.buffer-size} events kept per subscriber before it is resynced,
+     * streams open for {@code card-deck.events.timeout}, written by {@code card-deck.events.threads} threads.
+     */
+    @Bean
+    public DeckEvents deckEvents(@Value("${card-deck.events.buffer-size:64}") int bufferSize,
+                                 @Value("${card-deck.events.timeout:30m}") Duration timeout,
+                                 @Value("${card-deck.events.threads:0}") int threads) {
+        return new DeckEvents(bufferSize, timeout, threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Deck change streams for Actuator: {@code card.deck.events.subscribers} and {@code card.deck.events.resyncs}.
+     */
+    @Bean
+    public MeterBinder deckEventMetrics(DeckEvents deckEvents) {
+        return registry -> {
+            Gauge.builder("card.deck.events.subscribers", deckEvents, DeckEvents::subscriberCount)
+                    .description("Open deck event streams")
+                    .register(registry);
+            FunctionCounter.builder("card.deck.events.resyncs", deckEvents, DeckEvents::resyncCount)
+                    .description("Subscribers that fell behind and were sent the whole deck instead of the dropped events")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Deck counts for Actuator: {@code card.deck.active}, {@code card.deck.expired} and {@code card.deck.evicted}.
+     */
+    @Bean
+    public MeterBinder deckLifecycleMetrics(CardDeckService cardDeckService) {
+        DeckLifecycle lifecycle = cardDeckService.getLifecycle();
+        return registry -> {
+            Gauge.builder("card.deck.active", cardDeckService.getAllDecks(), decks -> decks.size())
+                    .description("Decks in memory")
+                    .register(registry);
+            FunctionCounter.builder("card.deck.expired", lifecycle, DeckLifecycle::expiredCount)
+                    .description("Decks removed after being idle for the TTL")
+                    .register(registry);
+            FunctionCounter.builder("card.deck.evicted", lifecycle, DeckLifecycle::evictedCount)
+                    .description("Least recently touched decks removed to stay within the maximum")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Deck operation timers ({@code card.deck.operations}) and the deck population gauges
+     * ({@code card.deck.cards}, {@code card.deck.remaining}), kept up to date as a deck change listener.
+     */
+    @Bean
+    public DeckMetrics deckMetrics(MeterRegistry registry) {
+        return new DeckMetrics(registry);
+    }
+
+    /**
+     * Waits for busy deck locks for Actuator: {@code card.deck.lock.contended}, counting and timing them.
+     */
+    @Bean
+    public MeterBinder deckLockMetrics(CardDeckService cardDeckService) {
+        StripedLocks locks = cardDeckService.getLocks();
+        return registry -> FunctionTimer.builder("card.deck.lock.contended", locks,
+                        StripedLocks::contendedCount, StripedLocks::waitNanos, TimeUnit.NANOSECONDS)
+                .description("Deck locks that were busy when taken, and the time spent waiting for them")
+                .register(registry);
+    }
+}
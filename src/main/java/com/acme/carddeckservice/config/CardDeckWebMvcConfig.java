@@ -0,0 +1,27 @@
+package com.acme.carddeckservice.config;
+
+import com.acme.carddeckservice.codec.CardBinaryHttpMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * The CardDeckWebMvcConfig class adds the compact card media type to the servlet stack.
+ *
+ * @author Viraj Ranaware
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CardDeckWebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * Added last, so content negotiation still picks JSON for clients that accept anything
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CardBinaryHttpMessageConverter());
+    }
+}
@@ -1,12 +1,18 @@
 package com.acme.carddeckservice.controller;
 
+import com.acme.carddeckservice.codec.CardBinaryCodec;
 import com.acme.carddeckservice.model.Card;
 import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,12 +23,28 @@ import java.util.List;
 public interface CardDeckAPI {
     @Operation(
             summary = "Fetch all decks",
-            description = "Fetches all deckIDs of all available decks.")
+            description = "Fetches all deckIDs of all available decks, or one page of them with limit and cursor.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully fetched all deckIDs"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+    })
+    ResponseEntity<List<String>> getAllDeckIds(Integer limit, String cursor);
 
+    @Operation(
+            summary = "Stream all decks",
+            description = "Streams all deckIDs as newline delimited JSON (Accept: application/x-ndjson).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed all deckIDs"),
     })
-    ResponseEntity<List<String>> getAllDeckIds(String requestId);
+    ResponseEntity<StreamingResponseBody> streamDeckIds();
+
+    @Operation(
+            summary = "Count decks",
+            description = "Returns the number of available decks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully counted the decks"),
+    })
+    ResponseEntity<Integer> getDeckCount();
 
     @Operation(
             summary = "Create a new deck",
@@ -30,15 +52,47 @@ public interface CardDeckAPI {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Successfully created a new deck"),
     })
-    ResponseEntity<Deck> createDeck(String requestId);
+    ResponseEntity<Deck> createDeck();
+
+    @Operation(
+            summary = "Create several decks",
+            description = "Creates count new decks, each a shoe of decks standard decks, and returns their deckIDs.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created the decks"),
+            @ApiResponse(responseCode = "400", description = "Invalid count or number of decks"),
+    })
+    ResponseEntity<List<String>> createDecks(int count, int decks);
+
+    @Operation(
+            summary = "Create a shoe",
+            description = "Creates a shoe that combines several standard decks into one deck and returns it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created a new shoe"),
+            @ApiResponse(responseCode = "400", description = "Invalid number of decks"),
+    })
+    ResponseEntity<Deck> createShoe(int decks);
 
     @Operation(
             summary = "Fetch a deck",
             description = "Fetches a deck of cards by deckID.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully fetched the deck"),
+            @ApiResponse(responseCode = "200", description = "Successfully fetched the deck", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Deck.class)),
+                    @Content(mediaType = CardBinaryCodec.MEDIA_TYPE_VALUE, schema = @Schema(type = "string", format = "binary"))}),
+            @ApiResponse(responseCode = "304", description = "Deck not modified since the If-None-Match ETag"),
+    })
+    ResponseEntity<byte[]> getDeck(String deckId, String ifNoneMatch, String accept);
+
+    @Operation(
+            summary = "Follow a deck",
+            description = "Streams the changes of a deck by deckID as server-sent events: sync with the whole deck first, "
+                    + "then dealt, returned and shuffled events with the deck version, and deleted when the deck is gone.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully subscribed to the deck",
+                    content = @Content(mediaType = "text/event-stream")),
+            @ApiResponse(responseCode = "404", description = "Deck not found"),
     })
-    ResponseEntity<Deck> getDeck(String requestId, String deckId);
+    SseEmitter streamDeckEvents(String deckId);
 
     @Operation(
             summary = "Shuffle a deck",
@@ -47,7 +101,7 @@ public interface CardDeckAPI {
             @ApiResponse(responseCode = "200", description = "Successfully shuffled the deck"),
             @ApiResponse(responseCode = "404", description = "Deck not found"),
     })
-    ResponseEntity<Void> shuffleDeck(String requestId, String deckId);
+    ResponseEntity<Void> shuffleDeck(String deckId);
 
     @Operation(
             summary = "Deal a card",
@@ -55,7 +109,36 @@ public interface CardDeckAPI {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully dealt a card"),
     })
-    ResponseEntity<Card> dealCard(String requestId, String deckId);
+    ResponseEntity<Card> dealCard(String deckId);
+
+    @Operation(
+            summary = "Deal several cards",
+            description = "Deals count cards from a deck by deckID in one atomic operation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully dealt the cards"),
+            @ApiResponse(responseCode = "400", description = "Invalid count"),
+            @ApiResponse(responseCode = "404", description = "Deck not found or not enough cards in deck"),
+    })
+    ResponseEntity<List<Card>> dealCards(String deckId, int count);
+
+    @Operation(
+            summary = "Deal hands",
+            description = "Deals cards round-robin into several hands from a deck by deckID in one atomic operation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully dealt the hands"),
+            @ApiResponse(responseCode = "400", description = "Invalid number of hands or cards"),
+            @ApiResponse(responseCode = "404", description = "Deck not found or not enough cards in deck"),
+    })
+    ResponseEntity<List<List<Card>>> dealHands(String deckId, int hands, int cards);
+
+    @Operation(
+            summary = "Fetch dealt cards",
+            description = "Fetches the cards dealt from a deck by deckID that have not been returned yet.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched the dealt cards"),
+            @ApiResponse(responseCode = "404", description = "Deck not found"),
+    })
+    ResponseEntity<List<Card>> getDealtCards(String deckId);
 
     @Operation(
             summary = "Return a card",
@@ -64,6 +147,27 @@ public interface CardDeckAPI {
             @ApiResponse(responseCode = "200", description = "Successfully returned a card"),
             @ApiResponse(responseCode = "404", description = "Deck not found"),
     })
-    ResponseEntity<Void> returnCard(String deckId, Card card, String requestId);
+    ResponseEntity<Void> returnCard(String deckId, Card card);
+
+    @Operation(
+            summary = "Apply several operations",
+            description = "Applies an ordered list of shuffle, deal and return operations to a deck by deckID "
+                    + "in one atomic operation. Either all of them are applied or none.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully applied the operations"),
+            @ApiResponse(responseCode = "400", description = "Invalid operation or card already in deck"),
+            @ApiResponse(responseCode = "404", description = "Deck not found or not enough cards in deck"),
+            @ApiResponse(responseCode = "412", description = "Deck is not at the expected version"),
+    })
+    ResponseEntity<DeckOperations.Response> applyOperations(String deckId, DeckOperations.Request request);
+
+    @Operation(
+            summary = "Delete a deck",
+            description = "Deletes a deck by deckID and frees its memory.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successfully deleted the deck"),
+            @ApiResponse(responseCode = "404", description = "Deck not found"),
+    })
+    ResponseEntity<Void> deleteDeck(String deckId);
 
 }
\ No newline at end of file
@@ -1,22 +1,36 @@
 package com.acme.carddeckservice.controller;
 
+import com.acme.carddeckservice.codec.CardBinaryCodec;
 import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.events.DeckEventSubscription;
+import com.acme.carddeckservice.events.DeckEvents;
 import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.error.PreconditionFailedException;
 import com.acme.carddeckservice.error.UnknownServerException;
 import com.acme.carddeckservice.model.Card;
 import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
 import com.acme.carddeckservice.service.CardDeckService;
-import com.acme.carddeckservice.utils.Constants;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import com.acme.carddeckservice.utils.CardValidator;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * The CardDeckController class is a RESTful web service controller.
@@ -27,38 +41,95 @@ import java.util.UUID;
 
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/cards-service/decks")
 public class CardDeckController implements CardDeckAPI {
 
     public static final String X_REQUEST_ID = "X-Request-ID";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
+    public static final int DEFAULT_PAGE_SIZE = 1000;
     private static final Logger LOGGER = LoggerFactory.getLogger(CardDeckController.class);
-    public static final String VALIDATING_DECK_ID_WITH_REQUEST_ID = "Validating deck ID {}, request Id: {}";
+    public static final String VALIDATING_DECK_ID = "Validating deck ID {}";
     CardDeckService cardDeckService;
+    DeckResponseCache deckResponseCache;
+    DeckEvents deckEvents;
 
-    public CardDeckController(CardDeckService cardDeckService) {
+    public CardDeckController(CardDeckService cardDeckService, DeckResponseCache deckResponseCache,
+                              DeckEvents deckEvents) {
         this.cardDeckService = cardDeckService;
+        this.deckResponseCache = deckResponseCache;
+        this.deckEvents = deckEvents;
     }
 
     /**
-     * Get all decks
+     * Get all decks, or one page of them
      *
-     * @return List of all deck IDs
+     * @param limit  Optional maximum number of deck IDs to return. Without it all deck IDs are returned.
+     * @param cursor Optional cursor from the X-Next-Cursor header of the previous page
+     * @return List of deck IDs in ID order
+     * @throws InvalidInputException The limit is out of range.
+     * @throws NotFoundException     There are no decks.
      * @header X-Request-ID Optional unique ID of the request.
      * If provided, it will be also be returned in the response header.
+     * @header X-Next-Cursor Cursor of the next page, when the page is full.
      */
-    @GetMapping()
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Override
-    public ResponseEntity<List<String>> getAllDeckIds(@RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
-        List<String> decks = cardDeckService.getAllDeckIds();
-        if (decks.isEmpty()) {
-            LOGGER.info("No decks found, request Id: {}", requestId);
-            throw new NotFoundException("No decks found");
+    public ResponseEntity<List<String>> getAllDeckIds(@RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String cursor) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        List<String> decks = limit == null && cursor == null
+                ? cardDeckService.getAllDeckIds()
+                : cardDeckService.getDeckIds(cursor, pageSize);
+        if (decks.isEmpty() && cursor == null) {
+            LOGGER.info("No decks found");
+            throw NotFoundException.NO_DECKS;
         }
 
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if ((limit != null || cursor != null) && decks.size() == pageSize) {
+            response.header(X_NEXT_CURSOR, decks.get(decks.size() - 1));
+        }
+        return response.body(decks);
+    }
+
+    /**
+     * Stream all deck IDs as newline delimited JSON, written while the decks are iterated without copying them
+     *
+     * @return One JSON string per line, in ID order
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamDeckIds() {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 8192);
+            for (String deckId : cardDeckService.deckIdView()) {
+                // Generated deck IDs never need JSON escaping
+                writer.write('"');
+                writer.write(deckId);
+                writer.write("\"\n");
+            }
+            writer.flush();
+        };
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Count the decks
+     *
+     * @return Number of decks
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping("/count")
+    @Override
+    public ResponseEntity<Integer> getDeckCount() {
         return ResponseEntity.status(HttpStatus.OK)
-                .header(X_REQUEST_ID, requestId)
-                .body(decks);
+                .body(cardDeckService.getDeckCount());
     }
 
     /**
@@ -71,35 +142,113 @@ public class CardDeckController implements CardDeckAPI {
 
     @GetMapping("/new")
     @Override
-    public ResponseEntity<Deck> createDeck(@RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
+    public ResponseEntity<Deck> createDeck() {
         Deck deck = cardDeckService.createNewDeck();
         return ResponseEntity.status(HttpStatus.CREATED)
-                .header(X_REQUEST_ID, requestId)
+                .body(deck);
+    }
+
+    /**
+     * Create several decks at once
+     *
+     * @param count The number of decks to create
+     * @param decks The number of standard decks in each of them, 1 by default
+     * @return List of the new deck IDs
+     * @throws InvalidInputException The input is not valid. The count or the number of decks is out of range.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @PostMapping("/batch")
+    @Override
+    public ResponseEntity<List<String>> createDecks(@RequestParam int count,
+                                                    @RequestParam(defaultValue = "1") int decks) {
+        LOGGER.info("Creating {} decks of {} standard decks", count, decks);
+        List<String> deckIds = cardDeckService.createNewDecks(count, decks).stream()
+                .map(Deck::getId)
+                .toList();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(deckIds);
+    }
+
+    /**
+     * Create a shoe of several standard decks
+     *
+     * @param decks The number of standard decks in the shoe
+     * @return Deck The new shoe
+     * @throws InvalidInputException The input is not valid. The number of decks is out of range.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @PostMapping("/shoe")
+    @Override
+    public ResponseEntity<Deck> createShoe(@RequestParam int decks) {
+        Deck deck = cardDeckService.createNewShoe(decks);
+        return ResponseEntity.status(HttpStatus.CREATED)
                 .body(deck);
     }
 
     /**
      * Get a deck by ID
      *
-     * @param deckId The unique ID of the deck
-     * @return Deck The deck object
+     * @param deckId      The unique ID of the deck
+     * @param ifNoneMatch Optional ETag of a previous response; 304 without a body if the deck has not changed
+     * @param accept      JSON by default, or the compact {@value CardBinaryCodec#MEDIA_TYPE_VALUE} if preferred
+     * @return Deck The deck object as JSON or in the compact format, with its ETag
      * @header X-Request-ID Optional unique ID of the request.
      * If provided, it will be also be returned in the response header.
      */
-    @GetMapping("/{deckId}")
+    @GetMapping(value = "/{deckId}", produces = {MediaType.APPLICATION_JSON_VALUE, CardBinaryCodec.MEDIA_TYPE_VALUE})
     @Override
-    public ResponseEntity<Deck> getDeck(@PathVariable String deckId,
-                                        @RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
-        LOGGER.info(VALIDATING_DECK_ID_WITH_REQUEST_ID, deckId, requestId);
+    public ResponseEntity<byte[]> getDeck(@PathVariable String deckId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
         validateDeckId(deckId);
-        LOGGER.info("Validating deck state for deck ID {}, request Id: {}", deckId, requestId);
-        validateDeckState(deckId);
         Deck deck = cardDeckService.getDeck(deckId);
+        if (deck == null) {
+            throw NotFoundException.DECK_NOT_FOUND;
+        }
+        // Emptiness as of the serialized version, which was read under the deck lock
+        DeckResponseCache.DeckResponse response = deckResponseCache.get(deck);
+        if (response.isEmpty()) {
+            throw NotFoundException.DECK_EMPTY;
+        }
+        boolean binary = accept != null && CardBinaryCodec.isPreferred(MediaType.parseMediaTypes(accept));
+        DeckResponseCache.Body body = response.body(binary);
+        if (body.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(body.eTag())
+                    .build();
+        }
         return ResponseEntity.status(HttpStatus.OK)
-                .header(X_REQUEST_ID, requestId)
-                .body(deck);
+                .eTag(body.eTag())
+                .contentType(body.mediaType())
+                .body(body.bytes());
+    }
+
+    /**
+     * Follow the changes of a deck as server-sent events. The first event is {@code sync} with the whole deck,
+     * followed by {@code dealt}, {@code returned} and {@code shuffled} events, and {@code deleted} when the deck is
+     * gone. A client that falls behind gets another {@code sync} event instead of the events it missed.
+     *
+     * @param deckId The unique ID of the deck
+     * @return The event stream, each event with the deck version as its ID
+     * @throws InvalidInputException The input is not valid. The deck ID is null or empty.
+     * @throws NotFoundException     The requested deck is not found.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping(value = "/{deckId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Override
+    public SseEmitter streamDeckEvents(@PathVariable String deckId) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
+        validateDeckId(deckId);
+        DeckEventSubscription subscription = deckEvents.subscribe(cardDeckService, deckId);
+        SseEmitter emitter = new SseEmitter(deckEvents.timeout().toMillis());
+        emitter.onCompletion(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscription.start(new SseEmitterSink(emitter, subscription, deckEvents.writers()));
+        return emitter;
     }
 
     /**
@@ -115,21 +264,83 @@ public class CardDeckController implements CardDeckAPI {
      */
     @GetMapping("/{deckId}/deal")
     @Override
-    public ResponseEntity<Card> dealCard(@PathVariable String deckId,
-                                         @RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
-        LOGGER.info(VALIDATING_DECK_ID_WITH_REQUEST_ID, deckId, requestId);
+    public ResponseEntity<Card> dealCard(@PathVariable String deckId) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
         validateDeckId(deckId);
-        LOGGER.info("Validating deck state for deck ID {}, request Id: {}", deckId, requestId);
-        validateDeckState(deckId);
-        Card card = cardDeckService.dealCard(deckId);
-        LOGGER.info("Dealing a card from deck {}, request Id: {}", deckId, requestId);
+        LOGGER.info("Dealing a card from deck {}", deckId);
+        Card card = cardDeckService.tryDeal(deckId)
+                .orElseThrow(() -> NotFoundException.DECK_EMPTY);
 
         return ResponseEntity.status(HttpStatus.OK)
-                .header(X_REQUEST_ID, requestId)
                 .body(card);
     }
 
+    /**
+     * Deals several cards from a deck in one atomic operation
+     *
+     * @param deckId The unique ID of the deck
+     * @param count  The number of cards to deal
+     * @return List of dealt cards, top card first
+     * @throws InvalidInputException The input is not valid. The deck ID is empty or the count is not positive.
+     * @throws NotFoundException     The requested deck is not found or has fewer than count cards.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping("/{deckId}/deal/{count}")
+    @Override
+    public ResponseEntity<List<Card>> dealCards(@PathVariable String deckId, @PathVariable int count) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
+        validateDeckId(deckId);
+        LOGGER.info("Dealing {} cards from deck {}", count, deckId);
+        List<Card> cards = cardDeckService.dealCards(deckId, count);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(cards);
+    }
+
+    /**
+     * Deals cards round-robin into several hands in one atomic operation
+     *
+     * @param deckId The unique ID of the deck
+     * @param hands  The number of hands
+     * @param cards  The number of cards in each hand
+     * @return List of hands, each a list of cards in the order they were dealt
+     * @throws InvalidInputException The input is not valid. The deck ID is empty or hands or cards are not positive.
+     * @throws NotFoundException     The requested deck is not found or has fewer than hands * cards cards.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping("/{deckId}/hands")
+    @Override
+    public ResponseEntity<List<List<Card>>> dealHands(@PathVariable String deckId,
+                                                      @RequestParam int hands, @RequestParam int cards) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
+        validateDeckId(deckId);
+        LOGGER.info("Dealing {} hands of {} cards from deck {}", hands, cards, deckId);
+        List<List<Card>> dealtHands = cardDeckService.dealHands(deckId, hands, cards);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(dealtHands);
+    }
+
+    /**
+     * Get the cards dealt from a deck and not returned yet
+     *
+     * @param deckId The unique ID of the deck
+     * @return List of dealt cards in suit and rank order
+     * @throws InvalidInputException The input is not valid. The deck ID is null or empty.
+     * @throws NotFoundException     The requested deck is not found.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @GetMapping("/{deckId}/dealt")
+    @Override
+    public ResponseEntity<List<Card>> getDealtCards(@PathVariable String deckId) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
+        validateDeckId(deckId);
+        List<Card> cards = cardDeckService.getDealtCards(deckId);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(cards);
+    }
+
     /**
      * Returns a card to a deck if it is a valid card and not already in the deck
      *
@@ -145,20 +356,42 @@ public class CardDeckController implements CardDeckAPI {
      */
     @PostMapping("/{deckId}/cards")
     @Override
-    public ResponseEntity<Void> returnCard(@PathVariable String deckId, @RequestBody @Valid Card card,
-                                           @RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        LOGGER.debug("Card to return: {}, request Id: {}", card, requestId);
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
-        LOGGER.info(VALIDATING_DECK_ID_WITH_REQUEST_ID, deckId, requestId);
+    public ResponseEntity<Void> returnCard(@PathVariable String deckId, @RequestBody @Valid Card card) {
+        LOGGER.debug("Card to return: {}", card);
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
         validateDeckId(deckId);
-        LOGGER.info("Validating card, request Id: {}", requestId);
-        validateCard(card, deckId);
-        cardDeckService.returnCard(deckId, card);
+        // The service validates the card after finding the deck
+        if (!cardDeckService.tryReturn(deckId, card)) {
+            throw InvalidInputException.CARD_ALREADY_IN_DECK;
+        }
         return ResponseEntity.status(HttpStatus.NO_CONTENT)
-                .header(X_REQUEST_ID, requestId)
                 .build();
     }
 
+    /**
+     * Applies several operations to a deck in one atomic operation, e.g. a whole round of a game
+     *
+     * @param deckId  The unique ID of the deck
+     * @param request The operations ({@code shuffle}, {@code deal} with a count, {@code return} with a card), applied
+     *                in order, and the optional version the deck must be at
+     * @return The deck version after the operations, and the result of each of them
+     * @throws InvalidInputException       The input is not valid, or a card to return is already in the deck.
+     * @throws NotFoundException           The requested deck is not found or has too few cards for a deal.
+     * @throws PreconditionFailedException The deck is not at the expected version.
+     * @header X-Request-ID Optional unique ID of the request.
+     * If provided, it will be also be returned in the response header.
+     */
+    @PostMapping("/{deckId}/ops")
+    @Override
+    public ResponseEntity<DeckOperations.Response> applyOperations(@PathVariable String deckId,
+                                                                   @RequestBody DeckOperations.Request request) {
+        LOGGER.info(VALIDATING_DECK_ID, deckId);
+        validateDeckId(deckId);
+        DeckOperations.Response response = cardDeckService.applyOperations(deckId, request);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(response);
+    }
+
     /**
      * Shuffles a deck
      *
@@ -172,86 +405,55 @@ public class CardDeckController implements CardDeckAPI {
 
     @GetMapping("/{deckId}/shuffle")
     @Override
-    public ResponseEntity<Void> shuffleDeck(@PathVariable String deckId,
-                                            @RequestHeader(value = X_REQUEST_ID, required = false) String requestId) {
-        requestId = requestId == null ? UUID.randomUUID().toString() : requestId;
+    public ResponseEntity<Void> shuffleDeck(@PathVariable String deckId) {
         validateDeckId(deckId);
         cardDeckService.shuffleDeck(deckId);
         return ResponseEntity.status(HttpStatus.NO_CONTENT)
-                .header(X_REQUEST_ID, requestId)
                 .build();
     }
 
     /**
-     * Validate deck ID
+     * Deletes a deck
      *
      * @param deckId The unique ID of the deck
-     * @throws InvalidInputException The input is not valid. The deck ID is null or empty.
-     * @throws NotFoundException     The requested deck is not found or is empty.
+     * @throws InvalidInputException  The input is not valid. The deck ID is null or empty.
+     * @throws NotFoundException      The requested deck is not found.
+     * @throws UnknownServerException Internal server error.
      * @header X-Request-ID Optional unique ID of the request.
      * If provided, it will be also be returned in the response header.
      */
-    public void validateDeckId(String deckId) throws InvalidInputException, NotFoundException {
-        if (deckId.isEmpty() || deckId.isBlank()) {
-            throw new InvalidInputException("Deck id not valid");
-        } else if (!cardDeckService.deckExists(deckId)) {
-            throw new NotFoundException("Deck not found");
-        }
-    }
 
-    public void validateDeckState(String deckId) throws NotFoundException {
-        if (cardDeckService.getDeck(deckId).getCards().isEmpty()) {
-            throw new NotFoundException("Deck is empty");
-        }
+    @DeleteMapping("/{deckId}")
+    @Override
+    public ResponseEntity<Void> deleteDeck(@PathVariable String deckId) {
+        validateDeckId(deckId);
+        LOGGER.info("Deleting deck {}", deckId);
+        cardDeckService.deleteDeck(deckId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .build();
     }
 
     /**
-     * Validate card
+     * Validate deck ID. Whether the deck exists is checked by the service, in the same lookup that serves the request.
      *
-     * @param card   The card object
      * @param deckId The unique ID of the deck
-     * @throws InvalidInputException The input is not valid. The card is null, empty or already in the deck.
-     * @throws NotFoundException     The requested resource (Card or Deck) is not found.
+     * @throws InvalidInputException The input is not valid. The deck ID is null or empty.
      * @header X-Request-ID Optional unique ID of the request.
      * If provided, it will be also be returned in the response header.
      */
-    public void validateCard(Card card, String deckId) throws InvalidInputException, NotFoundException {
-        if (card == null) {
-            throw new InvalidInputException("Card cannot be null or empty");
-        }
-
-        if (card.getSuit() == null || card.getRank() == null) {
-            throw new InvalidInputException("Invalid card - suit and rank must be provided");
-        }
-
-        if (card.getSuit().isEmpty() || card.getSuit().isBlank()) {
-            throw new InvalidInputException("Invalid card - suit cannot be empty");
-        }
-
-        if (card.getRank().isEmpty() || card.getRank().isBlank()) {
-            throw new InvalidInputException("Invalid card - rank cannot be empty");
-        }
-
-        if (!Constants.SUITS.contains(card.getSuit())) {
-            throw new InvalidInputException(new StringBuilder()
-                    .append("Invalid suit: ")
-                    .append(card.getSuit())
-                    .append(", valid suits are: ")
-                    .append(Constants.SUITS)
-                    .toString());
-        }
-
-        if (!Constants.RANKS.contains(card.getRank())) {
-            throw new InvalidInputException(new StringBuilder()
-                    .append("Invalid rank: ")
-                    .append(card.getRank())
-                    .append(", valid ranks are:")
-                    .append(Constants.RANKS)
-                    .toString());
+    public void validateDeckId(String deckId) throws InvalidInputException {
+        if (deckId.isBlank()) {
+            throw InvalidInputException.DECK_ID_NOT_VALID;
         }
+    }
 
-        if (cardDeckService.getAllDecks().get(deckId).getCards().contains(card)) {
-            throw new InvalidInputException("Card already in deck - cannot return card that is already in deck");
-        }
+    /**
+     * Validate card. Whether the card is already in the deck is checked atomically when it is returned.
+     *
+     * @param card The card object
+     * @throws InvalidInputException The input is not valid. The card is null, empty or not a valid card.
+     */
+    public void validateCard(Card card) throws InvalidInputException {
+        CardValidator.validate(card);
     }
 }
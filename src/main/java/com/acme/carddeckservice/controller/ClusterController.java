@@ -0,0 +1,106 @@
+package com.acme.carddeckservice.controller;
+
+import com.acme.carddeckservice.cluster.DeckCluster;
+import com.acme.carddeckservice.cluster.DeckTransfer;
+import com.acme.carddeckservice.cluster.ShardRebalancer;
+import com.acme.carddeckservice.error.InvalidInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ClusterController class manages the nodes of a cluster of CardDeckService instances,
+ * see {@link ShardRebalancer}. It is only available when {@code card-deck.cluster.nodes} is set, and only to
+ * requests with the cluster secret, see {@link com.acme.carddeckservice.filter.ClusterSecretFilter}.
+ *
+ * @author Viraj Ranaware
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "card-deck.cluster", name = "nodes")
+@RequestMapping("/api/cards-service/cluster")
+public class ClusterController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterController.class);
+    private final DeckCluster cluster;
+    private final ShardRebalancer rebalancer;
+
+    public ClusterController(DeckCluster cluster, ShardRebalancer rebalancer) {
+        this.cluster = cluster;
+        this.rebalancer = rebalancer;
+    }
+
+    /**
+     * Get the nodes of the cluster
+     *
+     * @return The ID of this node, the base URL of every node and the number of shards this node owns
+     */
+    @GetMapping
+    public ResponseEntity<ClusterView> getCluster() {
+        return ResponseEntity.ok(view());
+    }
+
+    /**
+     * Add a node to the cluster. Shards this node loses to the new node are handed over to it.
+     *
+     * @param nodeId The unique, alphanumeric ID of the node
+     * @param url    The base URL of the node
+     * @return The nodes of the cluster, with {@code 502} if some shards could not be handed over and are retained
+     * @throws InvalidInputException The node ID is not valid.
+     */
+    @PutMapping("/nodes/{nodeId}")
+    public ResponseEntity<ClusterView> joinNode(@PathVariable String nodeId, @RequestParam String url) {
+        LOGGER.info("Node {} joins at {}", nodeId, url);
+        try {
+            return respond(rebalancer.join(nodeId, url));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage());
+        }
+    }
+
+    /**
+     * Remove a node from the cluster. Shards this node loses to the remaining nodes are handed over to them.
+     *
+     * @param nodeId The ID of the node
+     * @return The nodes of the cluster, with {@code 502} if some shards could not be handed over and are retained
+     */
+    @DeleteMapping("/nodes/{nodeId}")
+    public ResponseEntity<ClusterView> leaveNode(@PathVariable String nodeId) {
+        LOGGER.info("Node {} leaves", nodeId);
+        return respond(rebalancer.leave(nodeId));
+    }
+
+    /**
+     * Receive the decks of shards handed over by another node
+     *
+     * @param decks The decks
+     * @throws InvalidInputException A deck is not valid or handed over twice; none of the decks are adopted.
+     */
+    @PostMapping("/decks")
+    public ResponseEntity<Void> adoptDecks(@RequestBody List<DeckTransfer> decks) {
+        LOGGER.info("Adopted {} of {} decks handed over", rebalancer.adopt(decks), decks.size());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    /**
+     * Retained shards are still served here, but the change has to be made again to hand them over
+     */
+    private ResponseEntity<ClusterView> respond(int retainedShards) {
+        return ResponseEntity.status(retainedShards > 0 ? HttpStatus.BAD_GATEWAY : HttpStatus.OK).body(view());
+    }
+
+    private ClusterView view() {
+        return new ClusterView(cluster.nodeId(), cluster.ring().nodes(), cluster.shards(), cluster.ownedShards().length,
+                cluster.retainedShards());
+    }
+
+    public record ClusterView(String nodeId, Map<String, String> nodes, int shards, int ownedShards,
+                              int retainedShards) {
+    }
+}
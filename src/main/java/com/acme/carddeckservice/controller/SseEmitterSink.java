@@ -0,0 +1,69 @@
+package com.acme.carddeckservice.controller;
+
+import com.acme.carddeckservice.events.DeckEvent;
+import com.acme.carddeckservice.events.DeckEventSink;
+import com.acme.carddeckservice.events.DeckEventSubscription;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The SseEmitterSink class writes deck events to an {@link SseEmitter}.
+ * A write blocks until the client has read enough, so it runs on a writer thread, one at a time per stream.
+ * The sink is not ready while a write is in flight: the subscription keeps buffering meanwhile and resyncs
+ * the client when the buffer overflows, and it is asked for more once the write is done.
+ *
+ * @author Viraj Ranaware
+ */
+class SseEmitterSink implements DeckEventSink {
+    private final SseEmitter emitter;
+    private final DeckEventSubscription subscription;
+    private final Executor writers;
+    // The last write or completion, only changed by the thread sending the subscription's events
+    private volatile CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+
+    SseEmitterSink(SseEmitter emitter, DeckEventSubscription subscription, Executor writers) {
+        this.emitter = emitter;
+        this.subscription = subscription;
+        this.writers = writers;
+    }
+
+    @Override
+    public boolean ready() {
+        return last.isDone();
+    }
+
+    @Override
+    public void send(DeckEvent event) {
+        CompletableFuture<Void> write = last.thenRunAsync(() -> write(event), writers);
+        last = write;
+        // Runs once the write is done, so the sink is ready again when the subscription is asked for more
+        write.whenComplete((done, e) -> {
+            if (e != null) {
+                subscription.close();
+                emitter.completeWithError(e);
+            } else {
+                subscription.request();
+            }
+        });
+    }
+
+    @Override
+    public void complete() {
+        last = last.thenRun(emitter::complete);
+    }
+
+    private void write(DeckEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.version()))
+                    .name(event.type())
+                    .data(event.data()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
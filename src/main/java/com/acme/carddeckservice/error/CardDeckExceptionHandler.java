@@ -2,14 +2,18 @@ package com.acme.carddeckservice.error;
 
 import com.acme.carddeckservice.utils.Constants;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 /**
  * The CardDeckExceptionHandler class is a global exception handler for the CardDeckService application.
  * It handles exceptions thrown by the CardDeckController.
+ * Bodies of routine errors come from the {@link ErrorBody} cache, only the timestamp is written per response.
  *
  * @author Viraj Ranaware
  */
@@ -23,13 +27,8 @@ public class CardDeckExceptionHandler {
      * @return ErrorResponse
      */
     @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleNotFoundException(NotFoundException e) {
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setErrorCode(HttpStatus.NOT_FOUND.toString());
-        errorResponse.setType(Constants.RESOURCE_NOT_FOUND);
-        errorResponse.setMessage(e.getMessage());
-        errorResponse.setTimestamp(System.currentTimeMillis());
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleNotFoundException(NotFoundException e) {
+        return error(e, HttpStatus.NOT_FOUND, Constants.RESOURCE_NOT_FOUND);
     }
 
     /**
@@ -39,13 +38,30 @@ public class CardDeckExceptionHandler {
      * @return ErrorResponse
      */
     @ExceptionHandler(InvalidInputException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidInputException(InvalidInputException e) {
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setErrorCode(HttpStatus.BAD_REQUEST.toString());
-        errorResponse.setType(Constants.INVALID_REQUEST);
-        errorResponse.setMessage(e.getMessage());
-        errorResponse.setTimestamp(System.currentTimeMillis());
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleInvalidInputException(InvalidInputException e) {
+        return error(e, HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST);
+    }
+
+    /**
+     * Handles PreconditionFailedException, a deck that is not at the expected version
+     *
+     * @param e PreconditionFailedException
+     * @return ErrorResponse
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<byte[]> handlePreconditionFailedException(PreconditionFailedException e) {
+        return error(e, HttpStatus.PRECONDITION_FAILED, Constants.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles missing or malformed path and query parameters, e.g. a non-numeric card count.
+     *
+     * @param e MissingServletRequestParameterException or MethodArgumentTypeMismatchException
+     * @return ErrorResponse
+     */
+    @ExceptionHandler({MissingServletRequestParameterException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<byte[]> handleInvalidParameter(Exception e) {
+        return error(e, HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST);
     }
 
     /**
@@ -55,13 +71,8 @@ public class CardDeckExceptionHandler {
      * @return ErrorResponse
      */
     @ExceptionHandler({UnknownServerException.class, Exception.class})
-    public ResponseEntity<ErrorResponse> handleException(Exception e) {
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setErrorCode(HttpStatus.INTERNAL_SERVER_ERROR.toString());
-        errorResponse.setType(Constants.INTERNAL_SERVER_ERROR);
-        errorResponse.setMessage(e.getMessage());
-        errorResponse.setTimestamp(System.currentTimeMillis());
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<byte[]> handleException(Exception e) {
+        return error(e, HttpStatus.INTERNAL_SERVER_ERROR, Constants.INTERNAL_SERVER_ERROR);
     }
 
     /**
@@ -70,12 +81,21 @@ public class CardDeckExceptionHandler {
      * @return ResponseEntity
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<ErrorResponse> handleMissingRequestBody() {
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setErrorCode(HttpStatus.BAD_REQUEST.toString());
-        errorResponse.setType(Constants.INVALID_REQUEST);
-        errorResponse.setMessage("Invalid input - request body is missing or invalid");
-        errorResponse.setTimestamp(System.currentTimeMillis());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    public ResponseEntity<byte[]> handleMissingRequestBody() {
+        return error(ErrorBody.BODY_MISSING);
+    }
+
+    private static ResponseEntity<byte[]> error(Exception e, HttpStatus status, String type) {
+        ErrorBody body = ErrorBody.shared(e);
+        return error(body != null ? body : ErrorBody.of(status, type, e.getMessage()));
+    }
+
+    /**
+     * Errors are always JSON, also for clients that only accept the compact card format
+     */
+    private static ResponseEntity<byte[]> error(ErrorBody body) {
+        return ResponseEntity.status(body.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.toJson(System.currentTimeMillis()));
     }
 }
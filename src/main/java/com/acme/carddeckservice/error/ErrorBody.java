@@ -0,0 +1,87 @@
+package com.acme.carddeckservice.error;
+
+import com.acme.carddeckservice.utils.Constants;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The ErrorBody class is an immutable, serialized {@link ErrorResponse} without its timestamp.
+ * The bodies of the shared {@link NotFoundException} and {@link InvalidInputException} instances are built once,
+ * so answering a routine error only appends the timestamp to a cached byte array.
+ *
+ * @author Viraj Ranaware
+ */
+public final class ErrorBody {
+    public static final ErrorBody BODY_MISSING = of(HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST,
+            "Invalid input - request body is missing or invalid");
+    private static final byte[] TIMESTAMP_END = "}".getBytes(StandardCharsets.UTF_8);
+    private static final Map<Throwable, ErrorBody> SHARED = new IdentityHashMap<>();
+
+    static {
+        Stream.of(NotFoundException.DECK_NOT_FOUND, NotFoundException.DECK_EMPTY,
+                        NotFoundException.NOT_ENOUGH_CARDS, NotFoundException.NO_DECKS)
+                .forEach(e -> SHARED.put(e, of(HttpStatus.NOT_FOUND, Constants.RESOURCE_NOT_FOUND, e.getMessage())));
+        Stream.of(InvalidInputException.DECK_ID_NOT_VALID, InvalidInputException.CARD_ALREADY_IN_DECK)
+                .forEach(e -> SHARED.put(e, of(HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST, e.getMessage())));
+    }
+
+    private final HttpStatus status;
+    // {"error_code":...,"error_type":...,"error_message":...,"timestamp":
+    private final byte[] prefix;
+
+    private ErrorBody(HttpStatus status, byte[] prefix) {
+        this.status = status;
+        this.prefix = prefix;
+    }
+
+    public static ErrorBody of(HttpStatus status, String type, String message) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(128);
+        json.writeBytes("{\"error_code\":".getBytes(StandardCharsets.UTF_8));
+        writeString(json, status.toString());
+        json.writeBytes(",\"error_type\":".getBytes(StandardCharsets.UTF_8));
+        writeString(json, type);
+        json.writeBytes(",\"error_message\":".getBytes(StandardCharsets.UTF_8));
+        writeString(json, message);
+        json.writeBytes(",\"timestamp\":".getBytes(StandardCharsets.UTF_8));
+        return new ErrorBody(status, json.toByteArray());
+    }
+
+    /**
+     * @return The body of a shared exception instance, or null for any other exception
+     */
+    public static ErrorBody shared(Throwable e) {
+        return SHARED.get(e);
+    }
+
+    public HttpStatus status() {
+        return status;
+    }
+
+    /**
+     * @return The JSON of the error, with the given timestamp
+     */
+    public byte[] toJson(long timestamp) {
+        byte[] millis = Long.toString(timestamp).getBytes(StandardCharsets.US_ASCII);
+        byte[] json = new byte[prefix.length + millis.length + TIMESTAMP_END.length];
+        System.arraycopy(prefix, 0, json, 0, prefix.length);
+        System.arraycopy(millis, 0, json, prefix.length, millis.length);
+        System.arraycopy(TIMESTAMP_END, 0, json, prefix.length + millis.length, TIMESTAMP_END.length);
+        return json;
+    }
+
+    private static void writeString(ByteArrayOutputStream json, String value) {
+        if (value == null) {
+            json.writeBytes("null".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        json.write('"');
+        json.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        json.write('"');
+    }
+}
@@ -2,11 +2,17 @@ package com.acme.carddeckservice.error;
 
 /**
  * The InvalidInputException class represents an exception that is thrown when an invalid input is provided.
+ * Invalid input is the client's error, so the exception has no stack trace,
+ * and the errors with a fixed message are shared instances.
  *
  * @author Viraj Ranaware
  */
 public class InvalidInputException extends RuntimeException{
+    public static final InvalidInputException DECK_ID_NOT_VALID = new InvalidInputException("Deck id not valid");
+    public static final InvalidInputException CARD_ALREADY_IN_DECK =
+            new InvalidInputException("Card already in deck - cannot return card that is already in deck");
+
     public InvalidInputException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
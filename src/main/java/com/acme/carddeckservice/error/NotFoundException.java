@@ -2,11 +2,18 @@ package com.acme.carddeckservice.error;
 
 /**
  * The NotFoundException class represents an exception that is thrown when a requested resource (Card or Deck) is not found.
+ * Unknown and empty decks are routine answers, so the exception has no stack trace,
+ * and the errors with a fixed message are shared instances.
  *
  * @author Viraj Ranaware
  */
 public class NotFoundException extends RuntimeException{
+    public static final NotFoundException DECK_NOT_FOUND = new NotFoundException("Deck not found");
+    public static final NotFoundException DECK_EMPTY = new NotFoundException("Deck is empty");
+    public static final NotFoundException NOT_ENOUGH_CARDS = new NotFoundException("Not enough cards in deck");
+    public static final NotFoundException NO_DECKS = new NotFoundException("No decks found");
+
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
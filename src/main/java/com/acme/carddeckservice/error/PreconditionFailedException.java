@@ -0,0 +1,15 @@
+package com.acme.carddeckservice.error;
+
+/**
+ * The PreconditionFailedException class represents an exception that is thrown when a deck is not at the version
+ * a client expected, because someone else changed it in the meantime.
+ * It is a routine answer to optimistic concurrency, so the exception has no stack trace.
+ *
+ * @author Viraj Ranaware
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+}
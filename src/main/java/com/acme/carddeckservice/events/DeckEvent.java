@@ -0,0 +1,72 @@
+package com.acme.carddeckservice.events;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+
+import java.util.List;
+
+/**
+ * The DeckEvent record is one server-sent event of a deck: its name, the deck version right after the change,
+ * which is also the event ID, and the JSON data. The data is built once per change and shared by all subscribers.
+ *
+ * @author Viraj Ranaware
+ */
+public record DeckEvent(String type, long version, String data) {
+    public static final String SYNC = "sync";
+    public static final String DEALT = "dealt";
+    public static final String RETURNED = "returned";
+    public static final String SHUFFLED = "shuffled";
+    public static final String DELETED = "deleted";
+
+    /**
+     * @param cards The dealt or returned cards, or null for a shuffle
+     */
+    static DeckEvent of(String type, long version, int remaining, List<Card> cards) {
+        StringBuilder data = header(version, remaining, cards == null ? 0 : cards.size());
+        if (cards != null) {
+            data.append(",\"cards\":[");
+            for (int i = 0; i < cards.size(); i++) {
+                appendCard(data, i, cards.get(i).getIndex());
+            }
+            data.append(']');
+        }
+        return new DeckEvent(type, version, data.append('}').toString());
+    }
+
+    /**
+     * The whole deck, to start from or to catch up after events were dropped
+     *
+     * @param order The card codes, top first
+     */
+    static DeckEvent sync(long version, byte[] order) {
+        StringBuilder data = header(version, order.length, order.length).append(",\"cards\":[");
+        for (int i = 0; i < order.length; i++) {
+            appendCard(data, i, order[i]);
+        }
+        return new DeckEvent(SYNC, version, data.append("]}").toString());
+    }
+
+    static DeckEvent deleted(long version) {
+        return new DeckEvent(DELETED, version, "{\"version\":" + version + "}");
+    }
+
+    /**
+     * @return Whether the stream ends with this event
+     */
+    public boolean isLast() {
+        return DELETED.equals(type);
+    }
+
+    private static StringBuilder header(long version, int remaining, int cards) {
+        return new StringBuilder(48 + cards * 5)
+                .append("{\"version\":").append(version)
+                .append(",\"remaining\":").append(remaining);
+    }
+
+    private static void appendCard(StringBuilder data, int i, int code) {
+        if (i > 0) {
+            data.append(',');
+        }
+        data.append('"').append(Cards.shortCode(code)).append('"');
+    }
+}
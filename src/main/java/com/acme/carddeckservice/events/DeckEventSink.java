@@ -0,0 +1,24 @@
+package com.acme.carddeckservice.events;
+
+import java.io.IOException;
+
+/**
+ * The DeckEventSink interface writes the events of a {@link DeckEventSubscription} to one client,
+ * e.g. an {@code SseEmitter} on the servlet stack or a {@code FluxSink} on the reactive stack.
+ *
+ * @author Viraj Ranaware
+ */
+public interface DeckEventSink {
+
+    /**
+     * @return Whether the client takes another event now
+     */
+    boolean ready();
+
+    void send(DeckEvent event) throws IOException;
+
+    /**
+     * The stream ended after its last event
+     */
+    void complete();
+}
@@ -0,0 +1,142 @@
+package com.acme.carddeckservice.events;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The DeckEventSubscription class is one client following one deck, with a bounded buffer of events not sent yet.
+ * Changes add events under the deck lock and never wait: when the buffer is full the events are dropped and the
+ * client gets a {@code sync} event with the whole deck instead, after which it continues with the events that
+ * are newer than that. The first event of every subscription is such a {@code sync} event.
+ * Events are written to the {@link DeckEventSink} on the executor of {@link DeckEvents}, by one thread at a time.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckEventSubscription {
+    private final DeckEvents events;
+    private final Deck deck;
+    private final int capacity;
+    private final Queue<DeckEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Non-zero while the sink is being written, counting the signals that arrived meanwhile
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile DeckEventSink sink;
+    private volatile boolean resync = true;
+    private volatile boolean deleted;
+    private volatile boolean closed;
+
+    DeckEventSubscription(DeckEvents events, Deck deck, int capacity) {
+        this.events = events;
+        this.deck = deck;
+        this.capacity = capacity;
+    }
+
+    public Deck getDeck() {
+        return deck;
+    }
+
+    /**
+     * Start writing events to the sink, beginning with the whole deck
+     */
+    public void start(DeckEventSink sink) {
+        this.sink = sink;
+        signal();
+    }
+
+    /**
+     * The client takes more events, see {@link DeckEventSink#ready()}
+     */
+    public void request() {
+        signal();
+    }
+
+    /**
+     * Stop following the deck, e.g. when the client went away
+     */
+    public void close() {
+        closed = true;
+        events.unsubscribe(this);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Add an event, called under the deck lock
+     */
+    void offer(DeckEvent event) {
+        if (queued.get() >= capacity) {
+            if (!resync) {
+                resync = true;
+                events.resynced();
+            }
+        } else {
+            queue.offer(event);
+            queued.incrementAndGet();
+        }
+        signal();
+    }
+
+    /**
+     * The deck is gone, end the stream after the events already added
+     */
+    void deckDeleted() {
+        deleted = true;
+        signal();
+    }
+
+    private void signal() {
+        if (sink != null && !closed && pending.getAndIncrement() == 0) {
+            events.executor().execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        DeckEventSink target = sink;
+        int missed = 1;
+        do {
+            DeckEvent event;
+            while (!closed && target.ready() && (event = next()) != null) {
+                try {
+                    target.send(event);
+                } catch (IOException | RuntimeException e) {
+                    close();
+                    return;
+                }
+                if (event.isLast()) {
+                    close();
+                    target.complete();
+                    return;
+                }
+            }
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private DeckEvent next() {
+        if (resync) {
+            resync = false;
+            DeckEvent sync = events.sync(deck);
+            // Events up to the synced version are in the deck already
+            DeckEvent event;
+            while ((event = queue.peek()) != null && event.version() <= sync.version()) {
+                queue.poll();
+                queued.decrementAndGet();
+            }
+            return sync;
+        }
+        // Read before polling: every event added before the deletion is in the queue by then
+        boolean ended = deleted;
+        DeckEvent event = queue.poll();
+        if (event != null) {
+            queued.decrementAndGet();
+            return event;
+        }
+        return ended ? DeckEvent.deleted(deck.getState().version()) : null;
+    }
+}
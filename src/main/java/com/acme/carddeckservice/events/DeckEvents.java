@@ -0,0 +1,209 @@
+package com.acme.carddeckservice.events;
+
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckChangeListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The DeckEvents class publishes the changes of decks to the clients following them, see
+ * {@code GET /decks/{deckId}/events}. Each change is turned into one {@link DeckEvent} that is shared by all
+ * subscribers of the deck and added to their bounded buffers; nothing is written while the deck lock is held.
+ * Subscriptions hold no thread: the buffers of the subscribers that have something to send are written by a small
+ * shared pool, so a node can serve tens of thousands of open streams. Sinks whose writes block, like the servlet
+ * stack's, hand each write to {@link #writers()} instead, so a slow client never holds up that pool.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckEvents implements DeckChangeListener, AutoCloseable {
+    private final int bufferSize;
+    private final Duration timeout;
+    private final ExecutorService executor;
+    private final ExecutorService writers;
+    private final Map<String, Set<DeckEventSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder resyncs = new LongAdder();
+
+    /**
+     * @param bufferSize Events kept per subscriber before they are dropped for a {@code sync} event
+     * @param timeout    How long a stream stays open, clients reconnect after that
+     * @param threads    Threads writing the events to the subscribers
+     */
+    public DeckEvents(int bufferSize, Duration timeout, int threads) {
+        if (bufferSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("Event buffer size and threads must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        AtomicInteger thread = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread writer = new Thread(task, "deck-events-" + thread.incrementAndGet());
+            writer.setDaemon(true);
+            return writer;
+        });
+        AtomicInteger blockingThread = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(task -> {
+            Thread writer = new Thread(task, "deck-events-writer-" + blockingThread.incrementAndGet());
+            writer.setDaemon(true);
+            return writer;
+        });
+    }
+
+    /**
+     * Follow a deck. The subscription sends nothing until it is started with a sink.
+     *
+     * @param cardDeckService The decks
+     * @param deckId          The unique ID of the deck
+     * @return The subscription, to be closed when the client goes away
+     * @throws NotFoundException The deck is not found.
+     */
+    public DeckEventSubscription subscribe(CardDeckService cardDeckService, String deckId) {
+        Deck deck = cardDeckService.getDeck(deckId);
+        if (deck == null) {
+            throw NotFoundException.DECK_NOT_FOUND;
+        }
+        DeckEventSubscription subscription = new DeckEventSubscription(this, deck, bufferSize);
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            subscriptions.compute(deckId, (id, following) -> {
+                Set<DeckEventSubscription> subscribed = following == null ? ConcurrentHashMap.newKeySet() : following;
+                subscribed.add(subscription);
+                return subscribed;
+            });
+            subscribers.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        // Removed before it was subscribed: its deletion was published already
+        if (!cardDeckService.isLive(deck)) {
+            subscription.deckDeleted();
+        }
+        return subscription;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * @return Threads for sink writes that may block, used by at most one write per subscription at a time
+     */
+    public Executor writers() {
+        return writers;
+    }
+
+    /**
+     * @return Open subscriptions
+     */
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    /**
+     * @return Times a subscriber fell behind and its buffered events were replaced by a {@code sync} event
+     */
+    public long resyncCount() {
+        return resyncs.sum();
+    }
+
+    @Override
+    public void cardsDealt(Deck deck, List<Card> cards) {
+        publish(deck, DeckEvent.DEALT, cards);
+    }
+
+    @Override
+    public void cardReturned(Deck deck, Card card) {
+        publish(deck, DeckEvent.RETURNED, List.of(card));
+    }
+
+    @Override
+    public void deckShuffled(Deck deck) {
+        publish(deck, DeckEvent.SHUFFLED, null);
+    }
+
+    @Override
+    public void deckDeleted(Deck deck) {
+        Set<DeckEventSubscription> following = subscriptions.get(deck.getId());
+        if (following != null) {
+            following.forEach(subscription -> {
+                if (subscription.getDeck() == deck) {
+                    subscription.deckDeleted();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    void unsubscribe(DeckEventSubscription subscription) {
+        subscriptions.computeIfPresent(subscription.getDeck().getId(), (deckId, following) -> {
+            if (following.remove(subscription)) {
+                subscribers.decrementAndGet();
+            }
+            return following.isEmpty() ? null : following;
+        });
+    }
+
+    void resynced() {
+        resyncs.increment();
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * The whole deck as a {@code sync} event
+     */
+    DeckEvent sync(Deck deck) {
+        CompactDeck state = deck.getState();
+        long version;
+        byte[] order;
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            version = state.version();
+            order = new byte[state.size()];
+            state.copyOrder(order);
+        } finally {
+            lock.unlock();
+        }
+        return DeckEvent.sync(version, order);
+    }
+
+    /**
+     * Called under the deck lock: one event for all subscribers, and only when there are any
+     */
+    private void publish(Deck deck, String type, List<Card> cards) {
+        Set<DeckEventSubscription> following = subscriptions.get(deck.getId());
+        if (following == null) {
+            return;
+        }
+        CompactDeck state = deck.getState();
+        DeckEvent event = DeckEvent.of(type, state.version(), state.size(), cards);
+        following.forEach(subscription -> {
+            if (subscription.getDeck() == deck) {
+                subscription.offer(event);
+            }
+        });
+    }
+}
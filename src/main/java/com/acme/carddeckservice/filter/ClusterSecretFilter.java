@@ -0,0 +1,66 @@
+package com.acme.carddeckservice.filter;
+
+import com.acme.carddeckservice.cluster.ShardRebalancer;
+import com.acme.carddeckservice.error.ErrorBody;
+import com.acme.carddeckservice.utils.Constants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The ClusterSecretFilter class only lets requests to the cluster endpoints through that carry
+ * {@code card-deck.cluster.secret} in the {@value ShardRebalancer#X_CLUSTER_SECRET} header, as the nodes send it
+ * to each other. Anyone else gets {@code 401 Unauthorized}, so clients of the public API can neither change the
+ * cluster nor hand decks to a node.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "card-deck.cluster", name = "nodes")
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ClusterSecretFilter extends OncePerRequestFilter {
+    private static final String CLUSTER_PATH = "/api/cards-service/cluster";
+    private static final ErrorBody UNAUTHORIZED = ErrorBody.of(HttpStatus.UNAUTHORIZED, Constants.UNAUTHORIZED,
+            "Cluster requests need the cluster secret");
+    private final byte[] secret;
+
+    public ClusterSecretFilter(@Value("${card-deck.cluster.secret:}") String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.equals(CLUSTER_PATH) && !path.startsWith(CLUSTER_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(ShardRebalancer.X_CLUSTER_SECRET);
+        // Constant time, so the secret can not be guessed byte by byte from response times
+        if (secret.length > 0 && presented != null
+                && MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(UNAUTHORIZED.status().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(UNAUTHORIZED.toJson(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.acme.carddeckservice.filter;
+
+import com.acme.carddeckservice.cluster.DeckCluster;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The DeckRoutingFilter class redirects requests for a deck that another node of the cluster owns to that node,
+ * with {@code 307 Temporary Redirect}, so the method and body are sent again unchanged.
+ * The owner is found from the deck ID alone, see {@link DeckCluster}. Requests for the deck collection,
+ * e.g. to create a deck, are served by the node they reach.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "card-deck.cluster", name = "nodes")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DeckRoutingFilter extends OncePerRequestFilter {
+    public static final String X_DECK_OWNER = "X-Deck-Owner";
+    private static final String DECKS_PATH = "/api/cards-service/decks/";
+    private static final Set<String> COLLECTION_PATHS = Set.of("new", "count", "batch", "shoe");
+    private final DeckCluster cluster;
+
+    public DeckRoutingFilter(DeckCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String deckId = deckIdOf(request.getRequestURI());
+        String owner = deckId == null ? null : cluster.remoteOwnerOf(deckId);
+        if (owner == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String query = request.getQueryString();
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, owner + request.getRequestURI() + (query == null ? "" : "?" + query));
+        response.setHeader(X_DECK_OWNER, owner);
+    }
+
+    /**
+     * @return The deck ID of a request for one deck, or null
+     */
+    static String deckIdOf(String path) {
+        if (!path.startsWith(DECKS_PATH)) {
+            return null;
+        }
+        int end = path.indexOf('/', DECKS_PATH.length());
+        String segment = path.substring(DECKS_PATH.length(), end < 0 ? path.length() : end);
+        return segment.isEmpty() || COLLECTION_PATHS.contains(segment) ? null : segment;
+    }
+}
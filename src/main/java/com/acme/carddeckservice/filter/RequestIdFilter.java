@@ -0,0 +1,53 @@
+package com.acme.carddeckservice.filter;
+
+import com.acme.carddeckservice.aop.LoggerAOP;
+import com.acme.carddeckservice.service.RequestIdGenerator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static com.acme.carddeckservice.controller.CardDeckController.X_REQUEST_ID;
+
+/**
+ * The RequestIdFilter class gives every request an ID: the {@code X-Request-ID} header if the client sent one,
+ * a generated one otherwise. The ID is returned in the response header and kept in the Log4j2
+ * {@link ThreadContext} under {@link LoggerAOP#REQUEST_ID} while the request is handled, where every log line
+ * picks it up, so controllers don't need to pass it around.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+    private final RequestIdGenerator requestIdGenerator;
+
+    public RequestIdFilter(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(X_REQUEST_ID);
+        if (requestId == null) {
+            requestId = requestIdGenerator.nextId();
+        }
+        response.setHeader(X_REQUEST_ID, requestId);
+        ThreadContext.put(LoggerAOP.REQUEST_ID, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ThreadContext.remove(LoggerAOP.REQUEST_ID);
+        }
+    }
+}
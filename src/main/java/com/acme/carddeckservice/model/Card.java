@@ -1,25 +1,130 @@
 package com.acme.carddeckservice.model;
 
-
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
-import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.util.Objects;
 
 /**
  * The Card class represents a playing card, which has a suit and a rank.
+ * Besides {@code {"suit":"Hearts","rank":"Queen"}} it is read from a short code like {@code "QH"}.
+ * Cards are immutable and every valid card is one of the 52 canonical instances of {@link Cards}, so valid cards
+ * are equal only if they are the same instance. A card that is not a standard card keeps its suit and rank for
+ * error messages and has no {@code index}.
  *
  * @author Viraj Ranaware
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
 @Getter
-@Setter
-@EqualsAndHashCode
-public class Card {
-    private String suit;
-    private String rank;
+@ToString(exclude = "index")
+@JsonPropertyOrder({"suit", "rank"})
+@JsonDeserialize(using = Card.Deserializer.class)
+public final class Card {
+    private final String suit;
+    private final String rank;
+
+    /**
+     * The card code, {@code suit * 13 + rank}, or {@link Cards#NO_CARD} for a card that is not a standard card
+     */
+    @JsonIgnore
+    private final int index;
+
+    /**
+     * Get a card by suit and rank
+     *
+     * @param suit The suit, e.g. {@code Hearts}
+     * @param rank The rank, e.g. {@code Queen}
+     * @return Card The canonical card instance, or a card without index if it is not a standard card
+     */
+    public static Card of(String suit, String rank) {
+        int code = Cards.codeOf(suit, rank);
+        return code == Cards.NO_CARD ? new Card(suit, rank, Cards.NO_CARD) : Cards.of(code);
+    }
+
+    /**
+     * Read a card from its short code, rank then suit letter, e.g. {@code "QH"} or {@code "10S"}
+     *
+     * @param code The short code
+     * @return Card The canonical card instance
+     * @throws IllegalArgumentException The code is not a card
+     */
+    public static Card fromCode(String code) {
+        int cardCode = Cards.codeOf(code);
+        if (cardCode == Cards.NO_CARD) {
+            throw new IllegalArgumentException("Invalid card code: " + code);
+        }
+        return Cards.of(cardCode);
+    }
+
+    /**
+     * @return true for one of the 52 standard cards
+     */
+    @JsonIgnore
+    public boolean isValid() {
+        return index != Cards.NO_CARD;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        // Valid cards are canonical, so only invalid cards can be equal without being the same instance
+        return o instanceof Card other && index == Cards.NO_CARD && other.index == Cards.NO_CARD
+                && Objects.equals(suit, other.suit) && Objects.equals(rank, other.rank);
+    }
+
+    @Override
+    public int hashCode() {
+        return index != Cards.NO_CARD ? index : Objects.hash(suit, rank);
+    }
+
+    /**
+     * Reads a card object or short code straight to its canonical instance, without an intermediate bean
+     */
+    static final class Deserializer extends StdDeserializer<Card> {
+
+        Deserializer() {
+            super(Card.class);
+        }
+
+        @Override
+        public Card deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                String code = parser.getText();
+                int cardCode = Cards.codeOf(code);
+                if (cardCode == Cards.NO_CARD) {
+                    return (Card) context.handleWeirdStringValue(Card.class, code, "not a card code");
+                }
+                return Cards.of(cardCode);
+            }
+            if (!parser.isExpectedStartObjectToken()) {
+                return (Card) context.handleUnexpectedToken(Card.class, parser);
+            }
+            String suit = null;
+            String rank = null;
+            for (String name = parser.nextFieldName(); name != null; name = parser.nextFieldName()) {
+                parser.nextToken();
+                // Scalars are read as text like the default deserializer would; objects and arrays are skipped
+                String value = parser.getValueAsString();
+                parser.skipChildren();
+                if (name.equals("suit")) {
+                    suit = value;
+                } else if (name.equals("rank")) {
+                    rank = value;
+                }
+            }
+            return of(suit, rank);
+        }
+    }
 }
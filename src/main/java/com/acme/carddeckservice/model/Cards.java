@@ -0,0 +1,142 @@
+package com.acme.carddeckservice.model;
+
+import com.acme.carddeckservice.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Cards class is the shared flyweight table of the 52 playing cards.
+ * A card is encoded as a single byte, {@code suit * 13 + rank}, using the order of
+ * {@link Constants#SUIT_ORDER} and {@link Constants#RANK_ORDER}.
+ *
+ * @author Viraj Ranaware
+ */
+public final class Cards {
+    public static final int SUIT_COUNT = Constants.SUIT_ORDER.size();
+    public static final int RANK_COUNT = Constants.RANK_ORDER.size();
+    public static final int DECK_SIZE = SUIT_COUNT * RANK_COUNT;
+    public static final int NO_CARD = -1;
+    public static final long ALL_CARDS = (1L << DECK_SIZE) - 1;
+
+    private static final Card[] TABLE = new Card[DECK_SIZE];
+    private static final String[] SHORT_CODES = new String[DECK_SIZE];
+    // Short codes like "QH": rank then suit letter, in the order of SUIT_ORDER and RANK_ORDER
+    private static final String SUIT_LETTERS = "HDCS";
+    private static final String RANK_LETTERS = "23456789TJQKA";
+
+    static {
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            for (int rank = 0; rank < RANK_COUNT; rank++) {
+                int code = suit * RANK_COUNT + rank;
+                TABLE[code] = new Card(Constants.SUIT_ORDER.get(suit), Constants.RANK_ORDER.get(rank), code);
+                SHORT_CODES[code] = "" + RANK_LETTERS.charAt(rank) + SUIT_LETTERS.charAt(suit);
+            }
+        }
+    }
+
+    private Cards() {
+    }
+
+    /**
+     * Get the shared card instance for a card code
+     *
+     * @param code The card code, {@code 0 <= code < 52}
+     * @return Card The shared card instance
+     */
+    public static Card of(int code) {
+        return TABLE[code];
+    }
+
+    /**
+     * Get the two character short code of a card, e.g. {@code QH} or {@code TS}
+     *
+     * @param code The card code, {@code 0 <= code < 52}
+     * @return The shared short code
+     */
+    public static String shortCode(int code) {
+        return SHORT_CODES[code];
+    }
+
+    /**
+     * Materialize the cards of a card mask in code order
+     *
+     * @param mask Card mask, bit {@code code} is set for each card
+     * @return List of cards from the shared table
+     */
+    public static List<Card> fromMask(long mask) {
+        List<Card> result = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            result.add(TABLE[Long.numberOfTrailingZeros(mask)]);
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Encode a card
+     *
+     * @param card The card object
+     * @return The card code, or {@link #NO_CARD} if it is null or not a standard card
+     */
+    public static int codeOf(Card card) {
+        return card == null ? NO_CARD : card.getIndex();
+    }
+
+    /**
+     * Encode a suit and rank. Candidates are picked by length and first character and confirmed with one
+     * {@code equals}, so nothing is hashed or allocated.
+     *
+     * @param suit The suit, e.g. {@code Hearts}
+     * @param rank The rank, e.g. {@code Queen}
+     * @return The card code, or {@link #NO_CARD} if the suit or rank is unknown
+     */
+    public static int codeOf(String suit, String rank) {
+        int suitIndex = suitIndex(suit);
+        int rankIndex = rankIndex(rank);
+        if (suitIndex < 0 || rankIndex < 0) {
+            return NO_CARD;
+        }
+        return suitIndex * RANK_COUNT + rankIndex;
+    }
+
+    /**
+     * Encode a short card code, rank then suit letter, e.g. {@code QH}, {@code 10S} or {@code TS}
+     *
+     * @param shortCode The short code
+     * @return The card code, or {@link #NO_CARD} if it is not a card
+     */
+    public static int codeOf(String shortCode) {
+        if (shortCode == null || shortCode.length() < 2 || shortCode.length() > 3) {
+            return NO_CARD;
+        }
+        int last = shortCode.length() - 1;
+        int suit = SUIT_LETTERS.indexOf(shortCode.charAt(last));
+        int rank = last == 2
+                ? (shortCode.startsWith("10") ? RANK_LETTERS.indexOf('T') : -1)
+                : RANK_LETTERS.indexOf(shortCode.charAt(0));
+        if (suit < 0 || rank < 0) {
+            return NO_CARD;
+        }
+        return suit * RANK_COUNT + rank;
+    }
+
+    private static int suitIndex(String suit) {
+        if (suit == null || suit.isEmpty()) {
+            return -1;
+        }
+        int candidate = SUIT_LETTERS.indexOf(suit.charAt(0));
+        return candidate >= 0 && Constants.SUIT_ORDER.get(candidate).equals(suit) ? candidate : -1;
+    }
+
+    private static int rankIndex(String rank) {
+        if (rank == null || rank.isEmpty()) {
+            return -1;
+        }
+        int candidate = switch (rank.length()) {
+            case 1 -> rank.charAt(0) >= '2' && rank.charAt(0) <= '9' ? rank.charAt(0) - '2' : -1;
+            default -> RANK_LETTERS.indexOf(rank.charAt(0) == '1' ? 'T' : rank.charAt(0));
+        };
+        return candidate >= 0 && Constants.RANK_ORDER.get(candidate).equals(rank) ? candidate : -1;
+    }
+}
@@ -0,0 +1,299 @@
+package com.acme.carddeckservice.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The CompactDeck class is the storage engine of a deck.
+ * Each card is stored as a single byte (see {@link Cards}) in a fixed-size ring buffer,
+ * cards are dealt from the head and returned to the tail.
+ * Next to the card order, a 64-bit mask tracks which cards are in the deck (bit {@code code} is set),
+ * so membership and "which cards are dealt" are single bit operations.
+ * A shoe combines several standard decks into one ring buffer and also counts the copies of each card.
+ * Every change bumps the deck's version: once per dealt or returned card and once per shuffle.
+ * {@link Card} objects are only materialized from the shared {@link Cards} table when needed.
+ * The class is not thread-safe, callers guard it with the owning {@link Deck}'s lock.
+ *
+ * @author Viraj Ranaware
+ */
+public class CompactDeck {
+    public static final int MAX_DECKS = 8;
+
+    // Ordered card codes of a shoe of n decks, so new decks are filled with one bulk copy
+    private static final byte[][] TEMPLATES = new byte[MAX_DECKS + 1][];
+
+    static {
+        for (int decks = 1; decks <= MAX_DECKS; decks++) {
+            TEMPLATES[decks] = new byte[decks * Cards.DECK_SIZE];
+            for (int i = 0; i < TEMPLATES[decks].length; i++) {
+                TEMPLATES[decks][i] = (byte) (i % Cards.DECK_SIZE);
+            }
+        }
+    }
+
+    private final byte[] cards;
+    private final int decks;
+    // Copies of each card in a shoe, null for a single deck
+    private final byte[] copies;
+    private long members;
+    private int head;
+    private int size;
+    private long version;
+
+    /**
+     * Create a new ordered deck of 52 cards
+     */
+    public CompactDeck() {
+        this(1);
+    }
+
+    /**
+     * Create a new ordered shoe of several standard decks
+     *
+     * @param decks The number of decks, {@code 1 <= decks <= MAX_DECKS}
+     * @throws IllegalArgumentException The number of decks is out of range.
+     */
+    public CompactDeck(int decks) {
+        if (decks < 1 || decks > MAX_DECKS) {
+            throw new IllegalArgumentException("Number of decks must be between 1 and " + MAX_DECKS);
+        }
+        this.decks = decks;
+        this.cards = TEMPLATES[decks].clone();
+        this.copies = decks == 1 ? null : filledCopies(decks);
+        this.size = cards.length;
+        this.members = Cards.ALL_CARDS;
+    }
+
+    private CompactDeck(CompactDeck other) {
+        this.decks = other.decks;
+        this.cards = other.cards.clone();
+        this.copies = other.copies == null ? null : other.copies.clone();
+        this.members = other.members;
+        this.head = other.head;
+        this.size = other.size;
+        this.version = other.version;
+    }
+
+    /**
+     * Rebuild a deck from a saved card order, e.g. from a snapshot
+     *
+     * @param decks   The number of standard decks
+     * @param order   The card codes in the deck, top first
+     * @param size    The number of cards in {@code order}
+     * @param version The version of the saved deck
+     * @return The restored deck
+     * @throws IllegalArgumentException The order holds a code that is not a card or more copies of a card than
+     *                                  the deck can, or the version is negative.
+     */
+    public static CompactDeck restore(int decks, byte[] order, int size, long version) {
+        if (version < 0) {
+            throw new IllegalArgumentException("Negative version " + version);
+        }
+        CompactDeck deck = new CompactDeck(decks);
+        deck.size = 0;
+        deck.members = 0;
+        if (deck.copies != null) {
+            Arrays.fill(deck.copies, (byte) 0);
+        }
+        for (int i = 0; i < size; i++) {
+            if (order[i] < 0 || order[i] >= Cards.DECK_SIZE) {
+                throw new IllegalArgumentException("Not a card code: " + order[i]);
+            }
+            if (!deck.accepts(order[i])) {
+                throw new IllegalArgumentException("Too many copies of card " + order[i]);
+            }
+            deck.add(order[i]);
+        }
+        deck.version = version;
+        return deck;
+    }
+
+    /**
+     * @return An independent copy of the deck, e.g. to try changes on
+     */
+    public CompactDeck copy() {
+        return new CompactDeck(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of standard decks combined in this deck
+     */
+    public int decks() {
+        return decks;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Remove the card on top of the deck
+     *
+     * @return The card code, or {@link Cards#NO_CARD} if the deck is empty
+     */
+    public int deal() {
+        if (size == 0) {
+            return Cards.NO_CARD;
+        }
+        int code = cards[head];
+        head = slot(1);
+        size--;
+        if (copies == null || --copies[code] == 0) {
+            members &= ~(1L << code);
+        }
+        version++;
+        return code;
+    }
+
+    /**
+     * Put a card at the bottom of the deck
+     *
+     * @param code The card code
+     * @throws IllegalStateException The deck already holds every copy of the card.
+     */
+    public void add(int code) {
+        if (!accepts(code)) {
+            throw new IllegalStateException("Deck is full");
+        }
+        cards[slot(size)] = (byte) code;
+        size++;
+        if (copies != null) {
+            copies[code]++;
+        }
+        members |= 1L << code;
+        version++;
+    }
+
+    /**
+     * @return true if at least one copy of the card is in the deck
+     */
+    public boolean contains(int code) {
+        return (members & (1L << code)) != 0;
+    }
+
+    /**
+     * @return true if a copy of the card is dealt and can be returned
+     */
+    public boolean accepts(int code) {
+        return copies == null ? !contains(code) : copies[code] < decks;
+    }
+
+    /**
+     * @return Mask of the cards in the deck, bit {@code code} is set for each card
+     */
+    public long members() {
+        return members;
+    }
+
+    /**
+     * @return Mask of the cards dealt from the deck, bit {@code code} is set for each card
+     * with at least one copy dealt
+     */
+    public long dealt() {
+        if (copies == null) {
+            return ~members & Cards.ALL_CARDS;
+        }
+        long dealt = 0;
+        for (int code = 0; code < Cards.DECK_SIZE; code++) {
+            if (copies[code] < decks) {
+                dealt |= 1L << code;
+            }
+        }
+        return dealt;
+    }
+
+    /**
+     * Materialize the dealt cards in suit and rank order, once per dealt copy
+     *
+     * @return List of cards from the shared {@link Cards} table
+     */
+    public List<Card> dealtCards() {
+        if (copies == null) {
+            return Cards.fromMask(dealt());
+        }
+        List<Card> result = new ArrayList<>(cards.length - size);
+        for (int code = 0; code < Cards.DECK_SIZE; code++) {
+            for (int copy = copies[code]; copy < decks; copy++) {
+                result.add(Cards.of(code));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shuffle the cards in place (Fisher-Yates)
+     *
+     * @param random The source of randomness
+     */
+    public void shuffle(RandomGenerator random) {
+        for (int i = size - 1; i > 0; i--) {
+            int a = slot(i);
+            int b = slot(random.nextInt(i + 1));
+            byte tmp = cards[a];
+            cards[a] = cards[b];
+            cards[b] = tmp;
+        }
+        version++;
+    }
+
+    /**
+     * Put the cards in a given order, e.g. when replaying a recorded shuffle
+     *
+     * @param order The card codes, top first, a permutation of the cards in the deck
+     */
+    public void reorder(byte[] order) {
+        System.arraycopy(order, 0, cards, 0, size);
+        head = 0;
+        version++;
+    }
+
+    /**
+     * Copy the card codes, top first
+     *
+     * @param target Array of at least {@link #size()} bytes
+     * @return The number of codes copied
+     */
+    public int copyOrder(byte[] target) {
+        int first = Math.min(size, cards.length - head);
+        System.arraycopy(cards, head, target, 0, first);
+        System.arraycopy(cards, 0, target, first, size - first);
+        return size;
+    }
+
+    /**
+     * Materialize the cards, top first
+     *
+     * @return List of cards from the shared {@link Cards} table
+     */
+    public List<Card> toCards() {
+        List<Card> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Cards.of(cards[slot(i)]));
+        }
+        return result;
+    }
+
+    /**
+     * Map a position, counted from the top of the deck, to its index in the ring buffer
+     */
+    private int slot(int position) {
+        int index = head + position;
+        return index < cards.length ? index : index - cards.length;
+    }
+
+    private static byte[] filledCopies(int decks) {
+        byte[] copies = new byte[Cards.DECK_SIZE];
+        Arrays.fill(copies, (byte) decks);
+        return copies;
+    }
+}
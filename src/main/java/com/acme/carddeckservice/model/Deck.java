@@ -1,25 +1,76 @@
 package com.acme.carddeckservice.model;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.Getter;
-import lombok.Setter;
+import lombok.RequiredArgsConstructor;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * The Deck class represents a deck of playing cards.
  * It has a unique ID and a list of cards that are currently in deck.
+ * The cards are held in a {@link CompactDeck} guarded by {@code lock}, and only materialized when serialized.
+ * {@code touched} is the lifecycle tick the deck was last used in, and {@code filed} the tick it is filed under,
+ * see {@code DeckLifecycle}.
+ * IDs are 1 to {@value #MAX_ID_LENGTH} printable ASCII characters, so every ID fits a journal record.
  *
  * @author Viraj Ranaware
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Getter
-@Setter
+@JsonPropertyOrder({"id", "cards"})
 public class Deck {
-    private String id;
-    private List<Card> cards;
+    public static final int MAX_ID_LENGTH = 32;
+
+    private final String id;
+
+    @JsonIgnore
+    private final CompactDeck state;
+
+    @JsonIgnore
+    private final Lock lock;
+
+    @JsonIgnore
+    private volatile long touched;
+
+    @JsonIgnore
+    private volatile long filed;
+
+    public List<Card> getCards() {
+        lock.lock();
+        try {
+            return state.toCards();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether the ID has 1 to {@value #MAX_ID_LENGTH} printable ASCII characters
+     */
+    public static boolean isValidId(String deckId) {
+        if (deckId == null || deckId.isEmpty() || deckId.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < deckId.length(); i++) {
+            char c = deckId.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void fileUnder(long tick) {
+        filed = tick;
+    }
+
+    public void touch(long tick) {
+        // Read first, so decks used many times per tick don't keep writing the shared field
+        if (touched < tick) {
+            touched = tick;
+        }
+    }
 }
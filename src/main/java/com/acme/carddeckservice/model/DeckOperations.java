@@ -0,0 +1,51 @@
+package com.acme.carddeckservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The DeckOperations class holds the request and response of {@code POST /decks/{deckId}/ops}:
+ * an ordered list of operations that is applied to a deck at once, e.g. shuffle, deal 10, return 3 cards, deal 2.
+ *
+ * @author Viraj Ranaware
+ */
+public final class DeckOperations {
+    public static final String SHUFFLE = "shuffle";
+    public static final String DEAL = "deal";
+    public static final String RETURN = "return";
+    public static final int MAX_OPERATIONS = 256;
+
+    private DeckOperations() {
+    }
+
+    /**
+     * @param expectedVersion Optional version the deck must be at, e.g. from the previous response or an event
+     * @param ops             The operations, applied in order
+     */
+    public record Request(Long expectedVersion, List<Operation> ops) {
+    }
+
+    /**
+     * @param op    {@code shuffle}, {@code deal} or {@code return}
+     * @param count The number of cards to deal, 1 by default
+     * @param card  The card to return
+     */
+    public record Operation(String op, Integer count, Card card) {
+    }
+
+    /**
+     * @param op    The operation
+     * @param cards The dealt cards, top card first, only for {@code deal}
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(String op, List<Card> cards) {
+    }
+
+    /**
+     * @param version The deck version after the operations
+     * @param results One result per operation, in order
+     */
+    public record Response(long version, List<Result> results) {
+    }
+}
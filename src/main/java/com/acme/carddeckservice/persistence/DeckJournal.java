@@ -0,0 +1,311 @@
+package com.acme.carddeckservice.persistence;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The DeckJournal class is an append-only log of deck changes in memory-mapped segment files.
+ * Every change is one or more fixed-size records of {@value #RECORD_SIZE} bytes. Writers reserve their slot with
+ * one atomic add and copy the record into the mapped segment, nothing is written through a system call.
+ * {@link #flush()} forces written records to disk; it is called periodically, so one fsync covers every change
+ * of the interval (group commit).
+ * <p>
+ * Record layout: type (1 byte), deck ID length (1), deck ID (up to {@value #MAX_ID_LENGTH}), deck version after
+ * the change (8), payload (22). The type byte is written last, so a record with a type is complete.
+ * A shuffle or an adopted deck carries its card order, split over consecutive records.
+ * Positions are global across segments; a restarted journal continues in a new segment after the existing ones.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckJournal implements Closeable {
+    public static final int RECORD_SIZE = 64;
+    // Decks only have IDs that fit, so a change the service made is never rejected here
+    public static final int MAX_ID_LENGTH = Deck.MAX_ID_LENGTH;
+
+    static final byte CREATE = 1;
+    static final byte DEAL = 2;
+    static final byte RETURN = 3;
+    static final byte SHUFFLE = 4;
+    static final byte DELETE = 5;
+    static final byte ADOPT = 6;
+
+    private static final int VERSION_OFFSET = 2 + MAX_ID_LENGTH;
+    private static final int PAYLOAD_OFFSET = VERSION_OFFSET + 8;
+    // Chunk offset and total size, and for an adopted deck also its number of standard decks
+    private static final int SHUFFLE_CODES = RECORD_SIZE - PAYLOAD_OFFSET - 4;
+    private static final int ADOPT_CODES = SHUFFLE_CODES - 1;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{10})\\.log");
+
+    private final Path directory;
+    private final long segmentSize;
+    private final AtomicLong position;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private long flushedPosition;
+    private long previousFlush;
+
+    /**
+     * Open the journal in a directory. Appends start in a new segment after the existing ones.
+     *
+     * @param directory   The journal directory, created if missing
+     * @param segmentSize The size of a segment file in bytes, rounded down to whole records
+     */
+    public DeckJournal(Path directory, long segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        List<Long> existing = segmentIndexes();
+        long next = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+        this.position = new AtomicLong(next * this.segmentSize);
+        this.flushedPosition = position.get();
+        this.previousFlush = flushedPosition;
+    }
+
+    /**
+     * @return The position the next record will be written at
+     */
+    public long position() {
+        return position.get();
+    }
+
+    public void appendCreate(String deckId, long version, int decks) {
+        ByteBuffer record = record(deckId, version);
+        record.put(PAYLOAD_OFFSET, (byte) decks);
+        write(position.getAndAdd(RECORD_SIZE), CREATE, record);
+    }
+
+    public void appendDeal(String deckId, long version, int count) {
+        ByteBuffer record = record(deckId, version);
+        record.putShort(PAYLOAD_OFFSET, (short) count);
+        write(position.getAndAdd(RECORD_SIZE), DEAL, record);
+    }
+
+    public void appendReturn(String deckId, long version, int code) {
+        ByteBuffer record = record(deckId, version);
+        record.put(PAYLOAD_OFFSET, (byte) code);
+        write(position.getAndAdd(RECORD_SIZE), RETURN, record);
+    }
+
+    public void appendDelete(String deckId, long version) {
+        write(position.getAndAdd(RECORD_SIZE), DELETE, record(deckId, version));
+    }
+
+    /**
+     * Append the card order after a shuffle, split over as many consecutive records as needed
+     *
+     * @param order The card codes, top first
+     * @param size  The number of cards
+     */
+    public void appendShuffle(String deckId, long version, byte[] order, int size) {
+        appendOrder(SHUFFLE, deckId, version, 0, order, size);
+    }
+
+    /**
+     * Append the full state of a deck handed over by another instance, split over as many consecutive records
+     * as needed
+     *
+     * @param decks The number of standard decks
+     * @param order The card codes, top first
+     * @param size  The number of cards
+     */
+    public void appendAdopt(String deckId, long version, int decks, byte[] order, int size) {
+        appendOrder(ADOPT, deckId, version, decks, order, size);
+    }
+
+    private void appendOrder(byte type, String deckId, long version, int decks, byte[] order, int size) {
+        int codes = type == ADOPT ? ADOPT_CODES : SHUFFLE_CODES;
+        int chunks = Math.max(1, (size + codes - 1) / codes);
+        long start = position.getAndAdd((long) chunks * RECORD_SIZE);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int offset = chunk * codes;
+            ByteBuffer record = record(deckId, version);
+            record.putShort(PAYLOAD_OFFSET, (short) offset);
+            record.putShort(PAYLOAD_OFFSET + 2, (short) size);
+            if (type == ADOPT) {
+                record.put(PAYLOAD_OFFSET + 4, (byte) decks);
+            }
+            record.put(RECORD_SIZE - codes, order, offset, Math.min(codes, size - offset));
+            write(start + (long) chunk * RECORD_SIZE, type, record);
+        }
+    }
+
+    /**
+     * Force the records written since the previous flush to disk
+     */
+    public synchronized void flush() {
+        long current = position.get();
+        for (long index = flushedPosition / segmentSize; index <= (current - 1) / segmentSize; index++) {
+            MappedByteBuffer segment = segments.get(index);
+            if (segment != null) {
+                segment.force();
+            }
+        }
+        // Records reserved just before this flush may still be copying in, so the next flush starts one flush back
+        flushedPosition = previousFlush;
+        previousFlush = current;
+    }
+
+    /**
+     * Delete the segments that only hold records before a position, e.g. after a snapshot covers them
+     */
+    public void deleteSegmentsBefore(long before) throws IOException {
+        for (long index : segmentIndexes()) {
+            if ((index + 1) * segmentSize <= before) {
+                segments.remove(index);
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+    }
+
+    /**
+     * Read the records from a position up to the end of the existing segments
+     *
+     * @param from    The first position to read
+     * @param handler Receives each complete change
+     */
+    public void replay(long from, Handler handler) throws IOException {
+        Map<String, byte[]> pendingShuffles = new HashMap<>();
+        for (long index : segmentIndexes()) {
+            long segmentStart = index * segmentSize;
+            if (segmentStart + segmentSize <= from) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(index))) {
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (long offset = Math.max(0, from - segmentStart); offset + RECORD_SIZE <= segment.limit(); offset += RECORD_SIZE) {
+                    replayRecord(segment, (int) offset, handler, pendingShuffles);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        segments.clear();
+    }
+
+    private void replayRecord(ByteBuffer segment, int offset, Handler handler, Map<String, byte[]> pendingShuffles) {
+        byte type = segment.get(offset);
+        if (type == 0) {
+            return;
+        }
+        byte[] id = new byte[segment.get(offset + 1)];
+        segment.get(offset + 2, id);
+        String deckId = new String(id, StandardCharsets.US_ASCII);
+        long version = segment.getLong(offset + VERSION_OFFSET);
+        int payload = offset + PAYLOAD_OFFSET;
+        switch (type) {
+            case CREATE -> handler.created(deckId, version, segment.get(payload));
+            case DEAL -> handler.dealt(deckId, version, segment.getShort(payload));
+            case RETURN -> handler.returned(deckId, version, segment.get(payload));
+            case DELETE -> handler.deleted(deckId);
+            case SHUFFLE, ADOPT -> {
+                int codes = type == ADOPT ? ADOPT_CODES : SHUFFLE_CODES;
+                int chunkOffset = segment.getShort(payload);
+                int size = segment.getShort(payload + 2);
+                byte[] order = chunkOffset == 0 ? new byte[size] : pendingShuffles.get(deckId);
+                if (order == null) {
+                    return;
+                }
+                int length = Math.min(codes, size - chunkOffset);
+                segment.get(offset + RECORD_SIZE - codes, order, chunkOffset, length);
+                if (chunkOffset + length < size) {
+                    pendingShuffles.put(deckId, order);
+                } else if (type == ADOPT) {
+                    pendingShuffles.remove(deckId);
+                    handler.adopted(deckId, version, segment.get(payload + 4), order);
+                } else {
+                    pendingShuffles.remove(deckId);
+                    handler.shuffled(deckId, version, order);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private ByteBuffer record(String deckId, long version) {
+        if (deckId.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Deck id too long for the journal: " + deckId);
+        }
+        // A fresh buffer per record: it is tiny, and thread-local caches don't pay off on virtual threads
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(1, (byte) deckId.length());
+        for (int i = 0; i < deckId.length(); i++) {
+            record.put(2 + i, (byte) deckId.charAt(i));
+        }
+        record.putLong(VERSION_OFFSET, version);
+        return record;
+    }
+
+    private void write(long at, byte type, ByteBuffer record) {
+        MappedByteBuffer segment = segments.computeIfAbsent(at / segmentSize, this::map);
+        int offset = (int) (at % segmentSize);
+        segment.put(offset + 1, record, 1, RECORD_SIZE - 1);
+        segment.put(offset, type);
+    }
+
+    private MappedByteBuffer map(long index) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(index).toFile(), "rw")) {
+            file.setLength(segmentSize);
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("journal-%010d.log", index));
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    /**
+     * Receives the changes read from the journal, in the order they were written
+     */
+    public interface Handler {
+        void created(String deckId, long version, int decks);
+
+        void dealt(String deckId, long version, int count);
+
+        void returned(String deckId, long version, int code);
+
+        void shuffled(String deckId, long version, byte[] order);
+
+        /**
+         * A deck was handed over by another instance with this state, replacing any deck with the same ID
+         */
+        void adopted(String deckId, long version, int decks, byte[] order);
+
+        void deleted(String deckId);
+    }
+}
@@ -0,0 +1,272 @@
+package com.acme.carddeckservice.persistence;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckChangeListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DeckPersistence class keeps the decks on disk when {@code card-deck.persistence.enabled} is true.
+ * Every change is appended to the {@link DeckJournal}, which is forced to disk every
+ * {@code card-deck.persistence.flush-interval-ms}, and a {@link DeckSnapshot} of all decks is taken every
+ * {@code card-deck.persistence.snapshot-interval-seconds} so the journal can be trimmed.
+ * On startup the latest snapshot is loaded and the journal written after it is replayed.
+ * Changes made within the last flush interval before a crash may be lost.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnProperty(name = "card-deck.persistence.enabled", havingValue = "true")
+public class DeckPersistence implements DeckChangeListener, SmartInitializingSingleton, DisposableBean {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final DeckJournal journal;
+    private final DeckSnapshot snapshot;
+    private ObjectProvider<CardDeckService> cardDeckService;
+    private long flushIntervalMillis;
+    private long snapshotIntervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public DeckPersistence(Path directory, long segmentSize) throws IOException {
+        this.journal = new DeckJournal(directory, segmentSize);
+        this.snapshot = new DeckSnapshot(directory);
+    }
+
+    @Autowired
+    public DeckPersistence(ObjectProvider<CardDeckService> cardDeckService,
+                           @Value("${card-deck.persistence.directory:data}") Path directory,
+                           @Value("${card-deck.persistence.segment-size-mb:64}") int segmentSizeMb,
+                           @Value("${card-deck.persistence.flush-interval-ms:10}") long flushIntervalMillis,
+                           @Value("${card-deck.persistence.snapshot-interval-seconds:300}") long snapshotIntervalSeconds)
+            throws IOException {
+        this(directory, segmentSizeMb * 1024L * 1024L);
+        this.cardDeckService = cardDeckService;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        CardDeckService service = cardDeckService.getObject();
+        try {
+            recover(service);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover decks", e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deck-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(journal::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(service);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Deck snapshot failed", e);
+            }
+        }, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Load the latest snapshot and replay the journal after it into the service
+     *
+     * @return The number of decks recovered
+     */
+    public int recover(CardDeckService service) throws IOException {
+        long start = System.nanoTime();
+        Map<String, CompactDeck> recovered = new HashMap<>();
+        long from = snapshot.exists() ? snapshot.read(recovered::put) : 0;
+        Replay replay = new Replay(recovered);
+        journal.replay(from, replay);
+        recovered.forEach(service::restoreDeck);
+        LOGGER.info("Recovered {} decks in {} ms", recovered.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (!replay.quarantined().isEmpty()) {
+            LOGGER.warn("Dropped {} decks whose journal records do not fit together", replay.quarantined().size());
+        }
+        return recovered.size();
+    }
+
+    /**
+     * Write a snapshot of all decks and delete the journal segments it covers
+     */
+    public void snapshot(CardDeckService service) throws IOException {
+        long position = journal.position();
+        int written = snapshot.write(position, service.getAllDecks());
+        journal.deleteSegmentsBefore(position);
+        LOGGER.info("Snapshot of {} decks at journal position {}", written, position);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        journal.close();
+    }
+
+    @Override
+    public void deckCreated(Deck deck) {
+        CompactDeck state = deck.getState();
+        journal.appendCreate(deck.getId(), state.version(), state.decks());
+    }
+
+    @Override
+    public void deckAdopted(Deck deck) {
+        CompactDeck state = deck.getState();
+        byte[] order = new byte[state.size()];
+        journal.appendAdopt(deck.getId(), state.version(), state.decks(), order, state.copyOrder(order));
+    }
+
+    @Override
+    public void cardsDealt(Deck deck, List<Card> cards) {
+        journal.appendDeal(deck.getId(), deck.getState().version(), cards.size());
+    }
+
+    @Override
+    public void cardReturned(Deck deck, Card card) {
+        journal.appendReturn(deck.getId(), deck.getState().version(), Cards.codeOf(card));
+    }
+
+    @Override
+    public void deckShuffled(Deck deck) {
+        CompactDeck state = deck.getState();
+        byte[] order = new byte[state.size()];
+        journal.appendShuffle(deck.getId(), state.version(), order, state.copyOrder(order));
+    }
+
+    @Override
+    public void deckDeleted(Deck deck) {
+        journal.appendDelete(deck.getId(), deck.getState().version());
+    }
+
+    /**
+     * Applies journal records to the recovered decks, skipping the ones a snapshot already contains.
+     * A change must continue the version of its deck; a deck with a gap, or a change that does not fit its cards,
+     * is quarantined: it is dropped with an error logged, and its further changes are ignored.
+     */
+    private record Replay(Map<String, CompactDeck> decks, Set<String> quarantined) implements DeckJournal.Handler {
+
+        Replay(Map<String, CompactDeck> decks) {
+            this(decks, new HashSet<>());
+        }
+
+        @Override
+        public void created(String deckId, long version, int deckCount) {
+            if (quarantined.contains(deckId)) {
+                return;
+            }
+            try {
+                decks.putIfAbsent(deckId, new CompactDeck(deckCount));
+            } catch (IllegalArgumentException e) {
+                quarantine(deckId, e.getMessage());
+            }
+        }
+
+        @Override
+        public void dealt(String deckId, long version, int count) {
+            CompactDeck deck = next(deckId, version, count);
+            if (deck != null) {
+                for (int i = 0; i < count; i++) {
+                    if (deck.deal() == Cards.NO_CARD) {
+                        quarantine(deckId, "dealt " + count + " cards from a deck of " + i);
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void returned(String deckId, long version, int code) {
+            CompactDeck deck = next(deckId, version, 1);
+            if (deck != null) {
+                if (code < 0 || code >= Cards.DECK_SIZE || !deck.accepts(code)) {
+                    quarantine(deckId, "returned card " + code + " that was not dealt");
+                    return;
+                }
+                deck.add(code);
+            }
+        }
+
+        @Override
+        public void shuffled(String deckId, long version, byte[] order) {
+            CompactDeck deck = next(deckId, version, 1);
+            if (deck != null) {
+                try {
+                    CompactDeck shuffled = CompactDeck.restore(deck.decks(), order, order.length, version);
+                    if (shuffled.size() != deck.size() || shuffled.members() != deck.members()) {
+                        throw new IllegalArgumentException("shuffle changes the cards of the deck");
+                    }
+                    decks.put(deckId, shuffled);
+                } catch (IllegalArgumentException e) {
+                    quarantine(deckId, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void adopted(String deckId, long version, int deckCount, byte[] order) {
+            // The adopted state replaces the deck, unless the snapshot already holds a newer one
+            CompactDeck deck = decks.get(deckId);
+            if (deck == null || version >= deck.version()) {
+                try {
+                    decks.put(deckId, CompactDeck.restore(deckCount, order, order.length, version));
+                    quarantined.remove(deckId);
+                } catch (IllegalArgumentException e) {
+                    quarantine(deckId, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void deleted(String deckId) {
+            // A snapshot never holds a deck deleted before the snapshot started, so this always applies
+            decks.remove(deckId);
+            quarantined.remove(deckId);
+        }
+
+        /**
+         * @return The deck, if the change with this version and number of changes is next for it
+         */
+        private CompactDeck next(String deckId, long version, int changes) {
+            CompactDeck deck = decks.get(deckId);
+            if (deck == null || version <= deck.version()) {
+                return null;
+            }
+            if (version != deck.version() + changes) {
+                quarantine(deckId, "version " + version + " does not follow " + deck.version());
+                return null;
+            }
+            return deck;
+        }
+
+        private void quarantine(String deckId, String reason) {
+            decks.remove(deckId);
+            quarantined.add(deckId);
+            LOGGER.error("Dropping deck {} recovered from the journal: {}", deckId, reason);
+        }
+    }
+}
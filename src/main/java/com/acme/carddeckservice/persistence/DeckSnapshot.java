@@ -0,0 +1,120 @@
+package com.acme.carddeckservice.persistence;
+
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The DeckSnapshot class writes and reads a point-in-time copy of all decks.
+ * A snapshot records the journal position it was started at; replay continues from there and skips journal
+ * records the snapshot already contains, recognized by their deck version.
+ * Snapshots are written to a temporary file, forced to disk and renamed, so a crash never leaves a partial one.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckSnapshot {
+    private static final int MAGIC = 0x4344534e;
+    private static final int FORMAT = 1;
+    private static final String FILE_NAME = "snapshot.bin";
+
+    private final Path file;
+
+    public DeckSnapshot(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    /**
+     * Write every deck, copying each one under its lock while the service keeps running.
+     * Decks removed before they are copied are left out, as their deletion may be journaled before the snapshot.
+     *
+     * @param journalPosition The journal position read before the first deck is copied
+     * @param decks           The decks to save, by ID
+     * @return The number of decks written
+     */
+    public int write(long journalPosition, Map<String, Deck> decks) throws IOException {
+        Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+        byte[] order = new byte[CompactDeck.MAX_DECKS * 52];
+        int written = 0;
+        try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(journalPosition);
+            for (Deck deck : decks.values()) {
+                int decksInShoe;
+                long version;
+                int size;
+                deck.getLock().lock();
+                try {
+                    if (decks.get(deck.getId()) != deck) {
+                        continue;
+                    }
+                    CompactDeck state = deck.getState();
+                    decksInShoe = state.decks();
+                    version = state.version();
+                    size = state.copyOrder(order);
+                } finally {
+                    deck.getLock().unlock();
+                }
+                byte[] id = deck.getId().getBytes(StandardCharsets.US_ASCII);
+                out.writeByte(id.length);
+                out.write(id);
+                out.writeByte(decksInShoe);
+                out.writeLong(version);
+                out.writeShort(size);
+                out.write(order, 0, size);
+                written++;
+            }
+            // An empty ID ends the snapshot
+            out.writeByte(0);
+            out.flush();
+            stream.getChannel().force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Read the snapshot
+     *
+     * @param consumer Receives each deck ID with its restored state
+     * @return The journal position to replay from
+     * @throws IOException The snapshot could not be read or is not a snapshot.
+     */
+    public long read(BiConsumer<String, CompactDeck> consumer) throws IOException {
+        byte[] order = new byte[CompactDeck.MAX_DECKS * 52];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Not a deck snapshot: " + file);
+            }
+            long journalPosition = in.readLong();
+            int idLength;
+            while ((idLength = in.readUnsignedByte()) > 0) {
+                byte[] id = new byte[idLength];
+                in.readFully(id);
+                int decks = in.readUnsignedByte();
+                long version = in.readLong();
+                int size = in.readUnsignedShort();
+                in.readFully(order, 0, size);
+                consumer.accept(new String(id, StandardCharsets.US_ASCII), CompactDeck.restore(decks, order, size, version));
+            }
+            return journalPosition;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.acme.carddeckservice.reactive;
+
+import com.acme.carddeckservice.error.ErrorBody;
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.error.PreconditionFailedException;
+import com.acme.carddeckservice.utils.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+/**
+ * The CardDeckErrorMapper class turns errors of the reactive handlers into the same
+ * status codes and ErrorResponse bodies as the CardDeckExceptionHandler, from the same {@link ErrorBody} cache.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CardDeckErrorMapper {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public Mono<ServerResponse> toResponse(Throwable e) {
+        ErrorBody shared = ErrorBody.shared(e);
+        if (shared != null) {
+            return error(shared);
+        }
+        if (e instanceof NotFoundException) {
+            return error(HttpStatus.NOT_FOUND, Constants.RESOURCE_NOT_FOUND, e.getMessage());
+        }
+        if (e instanceof PreconditionFailedException) {
+            return error(HttpStatus.PRECONDITION_FAILED, Constants.PRECONDITION_FAILED, e.getMessage());
+        }
+        if (e instanceof InvalidInputException || e instanceof NumberFormatException) {
+            return error(HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST, e.getMessage());
+        }
+        if (e instanceof DecodingException || e instanceof ServerWebInputException) {
+            return error(ErrorBody.BODY_MISSING);
+        }
+        LOGGER.error("Unexpected error", e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, Constants.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String type, String message) {
+        return error(ErrorBody.of(status, type, message));
+    }
+
+    private static Mono<ServerResponse> error(ErrorBody body) {
+        return ServerResponse.status(body.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body.toJson(System.currentTimeMillis()));
+    }
+}
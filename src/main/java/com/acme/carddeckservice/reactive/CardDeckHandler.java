@@ -0,0 +1,221 @@
+package com.acme.carddeckservice.reactive;
+
+import com.acme.carddeckservice.codec.CardBinaryCodec;
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.events.DeckEvent;
+import com.acme.carddeckservice.events.DeckEventSink;
+import com.acme.carddeckservice.events.DeckEventSubscription;
+import com.acme.carddeckservice.events.DeckEvents;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.acme.carddeckservice.controller.CardDeckController.DEFAULT_PAGE_SIZE;
+import static com.acme.carddeckservice.controller.CardDeckController.X_NEXT_CURSOR;
+
+/**
+ * The CardDeckHandler class handles the card deck API on the reactive stack.
+ * Deck operations are short in-memory work under a deck lock, so they run directly on the event loop.
+ * Status codes, headers and bodies are the same as those of the CardDeckController.
+ * The X-Request-ID response header is set by the RequestIdWebFilter.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CardDeckHandler {
+    private final CardDeckService cardDeckService;
+    private final DeckResponseCache deckResponseCache;
+    private final DeckEvents deckEvents;
+
+    public CardDeckHandler(CardDeckService cardDeckService, DeckResponseCache deckResponseCache,
+                           DeckEvents deckEvents) {
+        this.cardDeckService = cardDeckService;
+        this.deckResponseCache = deckResponseCache;
+        this.deckEvents = deckEvents;
+    }
+
+    public Mono<ServerResponse> getAllDeckIds(ServerRequest request) {
+        Integer limit = request.queryParam("limit").map(Integer::valueOf).orElse(null);
+        String cursor = request.queryParam("cursor").orElse(null);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        List<String> decks = limit == null && cursor == null
+                ? cardDeckService.getAllDeckIds()
+                : cardDeckService.getDeckIds(cursor, pageSize);
+        if (decks.isEmpty() && cursor == null) {
+            throw NotFoundException.NO_DECKS;
+        }
+        ServerResponse.BodyBuilder response = ServerResponse.ok();
+        if ((limit != null || cursor != null) && decks.size() == pageSize) {
+            response.header(X_NEXT_CURSOR, decks.get(decks.size() - 1));
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).bodyValue(decks);
+    }
+
+    public Mono<ServerResponse> streamDeckIds(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                // Generated deck IDs never need JSON escaping
+                .body(Flux.fromIterable(cardDeckService.deckIdView()).map(deckId -> '"' + deckId + "\"\n"), String.class);
+    }
+
+    public Mono<ServerResponse> getDeckCount(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(cardDeckService.getDeckCount());
+    }
+
+    public Mono<ServerResponse> createDeck(ServerRequest request) {
+        return body(request, ServerResponse.status(HttpStatus.CREATED), cardDeckService.createNewDeck());
+    }
+
+    public Mono<ServerResponse> createDecks(ServerRequest request) {
+        int count = requiredInt(request, "count");
+        int decks = request.queryParam("decks").map(Integer::parseInt).orElse(1);
+        List<String> deckIds = cardDeckService.createNewDecks(count, decks).stream()
+                .map(Deck::getId)
+                .toList();
+        return ServerResponse.status(HttpStatus.CREATED).bodyValue(deckIds);
+    }
+
+    public Mono<ServerResponse> createShoe(ServerRequest request) {
+        Deck deck = cardDeckService.createNewShoe(requiredInt(request, "decks"));
+        return body(request, ServerResponse.status(HttpStatus.CREATED), deck);
+    }
+
+    public Mono<ServerResponse> getDeck(ServerRequest request) {
+        Deck deck = cardDeckService.getDeck(request.pathVariable("deckId"));
+        if (deck == null) {
+            throw NotFoundException.DECK_NOT_FOUND;
+        }
+        DeckResponseCache.DeckResponse response = deckResponseCache.get(deck);
+        if (response.isEmpty()) {
+            throw NotFoundException.DECK_EMPTY;
+        }
+        DeckResponseCache.Body body = response.body(prefersBinary(request));
+        if (body.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(body.eTag()).build();
+        }
+        return ServerResponse.ok().eTag(body.eTag()).contentType(body.mediaType()).bodyValue(body.bytes());
+    }
+
+    /**
+     * Events are only taken from the subscription's buffer as the client requests them
+     */
+    public Mono<ServerResponse> streamDeckEvents(ServerRequest request) {
+        DeckEventSubscription subscription = deckEvents.subscribe(cardDeckService, request.pathVariable("deckId"));
+        Flux<ServerSentEvent<String>> events = Flux.<ServerSentEvent<String>>create(sink -> {
+                    sink.onRequest(n -> subscription.request());
+                    sink.onDispose(subscription::close);
+                    subscription.start(new DeckEventSink() {
+                        @Override
+                        public boolean ready() {
+                            return sink.requestedFromDownstream() > 0;
+                        }
+
+                        @Override
+                        public void send(DeckEvent event) {
+                            sink.next(ServerSentEvent.builder(event.data())
+                                    .id(Long.toString(event.version()))
+                                    .event(event.type())
+                                    .build());
+                        }
+
+                        @Override
+                        public void complete() {
+                            sink.complete();
+                        }
+                    });
+                }, FluxSink.OverflowStrategy.ERROR)
+                .take(deckEvents.timeout());
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(events, new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                });
+    }
+
+    public Mono<ServerResponse> deleteDeck(ServerRequest request) {
+        cardDeckService.deleteDeck(request.pathVariable("deckId"));
+        return ServerResponse.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    public Mono<ServerResponse> dealCard(ServerRequest request) {
+        Card card = cardDeckService.tryDeal(request.pathVariable("deckId"))
+                .orElseThrow(() -> NotFoundException.DECK_EMPTY);
+        return body(request, ServerResponse.ok(), card);
+    }
+
+    public Mono<ServerResponse> dealCards(ServerRequest request) {
+        int count = Integer.parseInt(request.pathVariable("count"));
+        return body(request, ServerResponse.ok(), cardDeckService.dealCards(request.pathVariable("deckId"), count));
+    }
+
+    public Mono<ServerResponse> dealHands(ServerRequest request) {
+        List<List<Card>> hands = cardDeckService.dealHands(request.pathVariable("deckId"),
+                requiredInt(request, "hands"), requiredInt(request, "cards"));
+        return body(request, ServerResponse.ok(), hands);
+    }
+
+    public Mono<ServerResponse> getDealtCards(ServerRequest request) {
+        return body(request, ServerResponse.ok(), cardDeckService.getDealtCards(request.pathVariable("deckId")));
+    }
+
+    public Mono<ServerResponse> returnCard(ServerRequest request) {
+        String deckId = request.pathVariable("deckId");
+        return request.bodyToMono(Card.class)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is missing")))
+                .flatMap(card -> {
+                    // The service validates the card after finding the deck
+                    if (!cardDeckService.tryReturn(deckId, card)) {
+                        throw InvalidInputException.CARD_ALREADY_IN_DECK;
+                    }
+                    return ServerResponse.status(HttpStatus.NO_CONTENT).build();
+                });
+    }
+
+    public Mono<ServerResponse> applyOperations(ServerRequest request) {
+        String deckId = request.pathVariable("deckId");
+        return request.bodyToMono(DeckOperations.Request.class)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is missing")))
+                .flatMap(operations -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(cardDeckService.applyOperations(deckId, operations)));
+    }
+
+    public Mono<ServerResponse> shuffleDeck(ServerRequest request) {
+        cardDeckService.shuffleDeck(request.pathVariable("deckId"));
+        return ServerResponse.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    /**
+     * Functional endpoints don't negotiate the content type, so pick JSON or the compact format here
+     */
+    private static Mono<ServerResponse> body(ServerRequest request, ServerResponse.BodyBuilder response, Object value) {
+        return response.contentType(prefersBinary(request) ? CardBinaryCodec.MEDIA_TYPE : MediaType.APPLICATION_JSON)
+                .bodyValue(value);
+    }
+
+    private static boolean prefersBinary(ServerRequest request) {
+        return CardBinaryCodec.isPreferred(request.headers().accept());
+    }
+
+    private static int requiredInt(ServerRequest request, String name) {
+        String value = request.queryParam(name)
+                .orElseThrow(() -> new InvalidInputException("Required request parameter '" + name + "' is not present"));
+        return Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,79 @@
+package com.acme.carddeckservice.reactive;
+
+import com.acme.carddeckservice.codec.CardBinaryDecoder;
+import com.acme.carddeckservice.codec.CardBinaryEncoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * The CardDeckRouter class routes the card deck API on the reactive stack, selected with
+ * {@code spring.main.web-application-type=reactive}. It serves the same paths as the CardDeckController
+ * on Netty, and maps errors to the same responses as the CardDeckExceptionHandler.
+ *
+ * @author Viraj Ranaware
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CardDeckRouter {
+    private static final String DECKS = "/api/cards-service/decks";
+
+    @Bean
+    public RouterFunction<ServerResponse> cardDeckRoutes(CardDeckHandler handler, CardDeckErrorMapper errors) {
+        return route()
+                .GET(DECKS, CardDeckRouter::acceptsNdjson, handler::streamDeckIds)
+                .GET(DECKS, handler::getAllDeckIds)
+                .GET(DECKS + "/count", handler::getDeckCount)
+                .GET(DECKS + "/new", handler::createDeck)
+                .POST(DECKS + "/batch", handler::createDecks)
+                .POST(DECKS + "/shoe", handler::createShoe)
+                .GET(DECKS + "/{deckId}", handler::getDeck)
+                .DELETE(DECKS + "/{deckId}", handler::deleteDeck)
+                .GET(DECKS + "/{deckId}/deal", handler::dealCard)
+                .GET(DECKS + "/{deckId}/deal/{count}", handler::dealCards)
+                .GET(DECKS + "/{deckId}/hands", handler::dealHands)
+                .GET(DECKS + "/{deckId}/dealt", handler::getDealtCards)
+                .POST(DECKS + "/{deckId}/cards", handler::returnCard)
+                .POST(DECKS + "/{deckId}/ops", handler::applyOperations)
+                .GET(DECKS + "/{deckId}/shuffle", handler::shuffleDeck)
+                .GET(DECKS + "/{deckId}/events", handler::streamDeckEvents)
+                // Handlers throw like the controller does; defer turns that into an error signal
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)).onErrorResume(errors::toResponse))
+                .build();
+    }
+
+    /**
+     * Stream only when NDJSON is asked for by name; accept() would also match clients that accept anything
+     */
+    private static boolean acceptsNdjson(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Read and write the compact card media type next to JSON
+     */
+    @Bean
+    public CodecCustomizer cardBinaryCodecCustomizer() {
+        return configurer -> {
+            configurer.customCodecs().register(new CardBinaryEncoder());
+            configurer.customCodecs().register(new CardBinaryDecoder());
+        };
+    }
+
+    /**
+     * Serve on Netty even though Tomcat is on the classpath for the servlet stack
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
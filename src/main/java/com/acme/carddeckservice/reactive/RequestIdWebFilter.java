@@ -0,0 +1,37 @@
+package com.acme.carddeckservice.reactive;
+
+import com.acme.carddeckservice.service.RequestIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import static com.acme.carddeckservice.controller.CardDeckController.X_REQUEST_ID;
+
+/**
+ * The RequestIdWebFilter class returns the {@code X-Request-ID} of every request on the reactive stack,
+ * generating one if the client sent none, like the {@code RequestIdFilter} of the servlet stack.
+ *
+ * @author Viraj Ranaware
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdWebFilter implements WebFilter {
+    private final RequestIdGenerator requestIdGenerator;
+
+    public RequestIdWebFilter(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestId = exchange.getRequest().getHeaders().getFirst(X_REQUEST_ID);
+        exchange.getResponse().getHeaders().set(X_REQUEST_ID, requestId == null ? requestIdGenerator.nextId() : requestId);
+        return chain.filter(exchange);
+    }
+}
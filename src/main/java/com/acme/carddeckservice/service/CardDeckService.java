@@ -1,70 +1,660 @@
 package com.acme.carddeckservice.service;
 
-import com.acme.carddeckservice.utils.Constants;
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.error.PreconditionFailedException;
 import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.CompactDeck;
 import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
+import com.acme.carddeckservice.utils.CardValidator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 /**
  * The CardDeckService class is a service class that provides methods
  * to create, get, shuffle, deal and return cards to a deck.
  * It also provides methods to get all decks and deck IDs.
+ * Every operation on a deck runs atomically under the deck's striped lock,
+ * and {@link DeckChangeListener}s are notified of each change while the lock is held.
+ * Idle and surplus decks are removed according to the {@link DeckLifecycle}.
+ * Decks are kept in a {@link DeckStore}, which also keeps the deck IDs in a sorted index,
+ * so they can be listed page by page in a stable order.
+ * Operations on existing decks are timed in the {@link DeckMetrics}.
  *
  * @author Viraj Ranaware
  */
 @Service
 public class CardDeckService {
-    private static final Map<String, Deck> decks = new ConcurrentHashMap<>();
-    long count = 0;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    public static final int MAX_PAGE_SIZE = 10_000;
+    private static final int LOCK_STRIPES = 1024;
+    private final DeckStore decks;
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final DeckIdGenerator deckIdGenerator;
+    private final ShuffleStrategy shuffleStrategy;
+    private final List<DeckChangeListener> listeners;
+    private final DeckLifecycle lifecycle;
+    private final DeckMetrics metrics;
 
+    public CardDeckService() {
+        this(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of());
+    }
+
+    public CardDeckService(DeckIdGenerator deckIdGenerator, ShuffleStrategy shuffleStrategy,
+                           List<DeckChangeListener> listeners) {
+        this(deckIdGenerator, shuffleStrategy, listeners, DeckLifecycle.unbounded());
+    }
+
+    public CardDeckService(DeckIdGenerator deckIdGenerator, ShuffleStrategy shuffleStrategy,
+                           List<DeckChangeListener> listeners, DeckLifecycle lifecycle) {
+        this(deckIdGenerator, shuffleStrategy, listeners, lifecycle, DeckMetrics.disabled());
+    }
+
+    /**
+     * @param metrics Timers of the deck operations. The deck gauges are only kept if it is also one of the listeners.
+     */
+    public CardDeckService(DeckIdGenerator deckIdGenerator, ShuffleStrategy shuffleStrategy,
+                           List<DeckChangeListener> listeners, DeckLifecycle lifecycle, DeckMetrics metrics) {
+        this(new ConcurrentDeckStore(), deckIdGenerator, shuffleStrategy, listeners, lifecycle, metrics);
+    }
+
+    @Autowired
+    public CardDeckService(DeckStore decks, DeckIdGenerator deckIdGenerator, ShuffleStrategy shuffleStrategy,
+                           List<DeckChangeListener> listeners, DeckLifecycle lifecycle, DeckMetrics metrics) {
+        this.decks = decks;
+        this.deckIdGenerator = deckIdGenerator;
+        this.shuffleStrategy = shuffleStrategy;
+        this.listeners = List.copyOf(listeners);
+        this.lifecycle = lifecycle;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void startLifecycle() {
+        lifecycle.start(this::isLive, this::remove);
+    }
 
     public Deck createNewDeck() {
         // Initialize deck with 52 cards
-        List<Card> cards = new CopyOnWriteArrayList<>();
-        for (String suit : Constants.SUITS) {
-            for (String rank : Constants.RANKS) {
-                cards.add(new Card(suit, rank));
-            }
+        return createNewShoe(1);
+    }
+
+    /**
+     * Create a shoe that combines several standard decks into one dealing source
+     *
+     * @param deckCount The number of standard decks in the shoe
+     * @return Deck The new shoe
+     * @throws InvalidInputException The number of decks is out of range.
+     */
+    public Deck createNewShoe(int deckCount) {
+        if (deckCount < 1 || deckCount > CompactDeck.MAX_DECKS) {
+            throw new InvalidInputException("Number of decks must be between 1 and " + CompactDeck.MAX_DECKS);
         }
-        count++;
-        String deckId = String.valueOf(count);
-        Deck deck = new Deck(deckId, cards);
-        decks.put(deckId, deck);
+        long start = System.nanoTime();
+        CompactDeck state = new CompactDeck(deckCount);
+        String deckId = nextDeckId();
+        Deck deck = new Deck(deckId, state, locks.lockFor(deckId));
+        while (!register(deck, false)) {
+            // A generator that restarted, e.g. after decks were recovered from disk, may repeat an ID
+            metrics.recordIdCollision();
+            deckId = nextDeckId();
+            deck = new Deck(deckId, state, locks.lockFor(deckId));
+        }
+        evictSurplus();
+        metrics.recordCreate(start);
         return deck;
     }
 
+    /**
+     * Add a deck recovered from disk, without notifying listeners
+     *
+     * @param deckId The unique ID of the deck
+     * @param state  The recovered cards
+     * @return Deck The restored deck, or the existing deck if the ID is already taken
+     */
+    public Deck restoreDeck(String deckId, CompactDeck state) {
+        Deck deck = new Deck(deckId, state, locks.lockFor(deckId));
+        Deck existing = decks.putIfAbsent(deck);
+        if (existing != null) {
+            return existing;
+        }
+        lifecycle.track(deck);
+        // Listeners are not told about recovered decks, but the gauges count them, and will see them deleted
+        metrics.deckCreated(deck);
+        evictSurplus();
+        return deck;
+    }
+
+    /**
+     * Delete a deck
+     *
+     * @param deckId The unique ID of the deck
+     * @throws NotFoundException The deck is not found.
+     */
+    public void deleteDeck(String deckId) {
+        if (!remove(requireDeck(deckId))) {
+            throw NotFoundException.DECK_NOT_FOUND;
+        }
+    }
+
+    /**
+     * Create several decks or shoes at once
+     *
+     * @param count     The number of decks to create
+     * @param deckCount The number of standard decks in each of them
+     * @return List of the new decks
+     * @throws InvalidInputException The count or the number of decks is out of range.
+     */
+    public List<Deck> createNewDecks(int count, int deckCount) {
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new InvalidInputException("Number of decks to create must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        List<Deck> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            created.add(createNewShoe(deckCount));
+        }
+        return created;
+    }
+
+    /**
+     * Add a deck handed over by another instance, like a new deck
+     *
+     * @param deckId The unique ID of the deck
+     * @param state  The cards of the deck
+     * @return true if the deck was added, false if the ID is already taken
+     * @throws InvalidInputException The deck ID is not valid, see {@link Deck#isValidId(String)}.
+     */
+    public boolean adoptDeck(String deckId, CompactDeck state) {
+        if (!Deck.isValidId(deckId)) {
+            throw new InvalidInputException("Deck ID must be 1 to " + Deck.MAX_ID_LENGTH + " ASCII characters: " + deckId);
+        }
+        if (!register(new Deck(deckId, state, locks.lockFor(deckId)), true)) {
+            return false;
+        }
+        evictSurplus();
+        return true;
+    }
+
+    /**
+     * Remove a deck that is handed over to another instance, like a deleted deck
+     *
+     * @param deck The deck
+     * @return A copy of the cards of the deck, or null if the deck is already gone
+     */
+    public CompactDeck releaseDeck(Deck deck) {
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            CompactDeck state = deck.getState();
+            byte[] order = new byte[state.size()];
+            state.copyOrder(order);
+            CompactDeck copy = CompactDeck.restore(state.decks(), order, order.length, state.version());
+            return remove(deck) ? copy : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public Map<String, Deck> getAllDecks() {
+        return decks.asMap();
+    }
+
+    public DeckStore getStore() {
         return decks;
     }
 
     public Deck getDeck(String deckId) {
-        return decks.get(deckId);
+        Deck deck = decks.get(deckId);
+        if (deck != null) {
+            lifecycle.touch(deck);
+        }
+        return deck;
+    }
+
+    public DeckLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public StripedLocks getLocks() {
+        return locks;
     }
 
+    /**
+     * Deal the top card of a deck
+     *
+     * @param deckId The unique ID of the deck
+     * @return Card The dealt card
+     * @throws NotFoundException The deck is not found or is empty.
+     */
     public Card dealCard(String deckId) {
-        return decks.get(deckId).getCards().remove(0);
+        return tryDeal(deckId).orElseThrow(() -> NotFoundException.DECK_EMPTY);
+    }
+
+    /**
+     * Atomically deal the top card of a deck
+     *
+     * @param deckId The unique ID of the deck
+     * @return The dealt card, or empty if the deck is empty
+     * @throws NotFoundException The deck is not found.
+     */
+    public Optional<Card> tryDeal(String deckId) {
+        long start = System.nanoTime();
+        Deck deck = requireDeck(deckId);
+        Lock lock = deck.getLock();
+        int code;
+        lock.lock();
+        try {
+            code = deck.getState().deal();
+            if (code != Cards.NO_CARD && !listeners.isEmpty()) {
+                List<Card> dealt = List.of(Cards.of(code));
+                listeners.forEach(listener -> listener.cardsDealt(deck, dealt));
+            }
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordDeal(start, code != Cards.NO_CARD);
+        return code == Cards.NO_CARD ? Optional.empty() : Optional.of(Cards.of(code));
+    }
+
+    /**
+     * Atomically deal several cards from the top of a deck
+     *
+     * @param deckId The unique ID of the deck
+     * @param count  The number of cards to deal
+     * @return List of dealt cards, top card first
+     * @throws InvalidInputException The count is not positive.
+     * @throws NotFoundException     The deck is not found or has fewer than {@code count} cards.
+     */
+    public List<Card> dealCards(String deckId, int count) {
+        if (count <= 0) {
+            throw new InvalidInputException("Number of cards to deal must be positive");
+        }
+        return dealHands(deckId, 1, count).get(0);
+    }
+
+    /**
+     * Atomically deal cards round-robin into several hands, like a dealer around a table
+     *
+     * @param deckId       The unique ID of the deck
+     * @param hands        The number of hands
+     * @param cardsPerHand The number of cards in each hand
+     * @return List of hands, each a list of cards in the order they were dealt
+     * @throws InvalidInputException The number of hands or cards is not positive.
+     * @throws NotFoundException     The deck is not found or has fewer than {@code hands * cardsPerHand} cards.
+     */
+    public List<List<Card>> dealHands(String deckId, int hands, int cardsPerHand) {
+        if (hands <= 0) {
+            throw new InvalidInputException("Number of hands must be positive");
+        }
+        if (cardsPerHand <= 0) {
+            throw new InvalidInputException("Number of cards per hand must be positive");
+        }
+        long start = System.nanoTime();
+        Deck deck = requireDeck(deckId);
+        List<List<Card>> result;
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            CompactDeck state = deck.getState();
+            // Checked before allocating: the counts come straight from the request
+            if ((long) hands * cardsPerHand > state.size()) {
+                metrics.recordDeal(start, false);
+                throw NotFoundException.NOT_ENOUGH_CARDS;
+            }
+            result = new ArrayList<>(hands);
+            for (int hand = 0; hand < hands; hand++) {
+                result.add(new ArrayList<>(cardsPerHand));
+            }
+            List<Card> dealt = new ArrayList<>(hands * cardsPerHand);
+            for (int round = 0; round < cardsPerHand; round++) {
+                for (int hand = 0; hand < hands; hand++) {
+                    Card card = Cards.of(state.deal());
+                    result.get(hand).add(card);
+                    dealt.add(card);
+                }
+            }
+            listeners.forEach(listener -> listener.cardsDealt(deck, dealt));
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordDeal(start, true);
+        return result;
     }
 
+    /**
+     * Return a card to the bottom of a deck
+     *
+     * @param deckId The unique ID of the deck
+     * @param card   The card object
+     * @throws NotFoundException     The deck is not found.
+     * @throws InvalidInputException The card is not valid or already in the deck.
+     */
     public void returnCard(String deckId, Card card) {
-        decks.get(deckId).getCards().add(card);
+        if (!tryReturn(deckId, card)) {
+            throw InvalidInputException.CARD_ALREADY_IN_DECK;
+        }
+    }
+
+    /**
+     * Atomically return a card to the bottom of a deck, unless it is already in the deck
+     * (for a shoe: unless every copy of it is already in the shoe)
+     *
+     * @param deckId The unique ID of the deck
+     * @param card   The card object
+     * @return true if the card was returned, false if it is already in the deck
+     * @throws NotFoundException     The deck is not found.
+     * @throws InvalidInputException The card is not a valid card. Checked after the deck, so an unknown deck is 404.
+     */
+    public boolean tryReturn(String deckId, Card card) {
+        long start = System.nanoTime();
+        Deck deck = requireDeck(deckId);
+        CardValidator.validate(card);
+        int code = Cards.codeOf(card);
+        Lock lock = deck.getLock();
+        boolean returned = false;
+        lock.lock();
+        try {
+            CompactDeck state = deck.getState();
+            if (state.accepts(code)) {
+                state.add(code);
+                listeners.forEach(listener -> listener.cardReturned(deck, card));
+                returned = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordReturn(start, returned);
+        return returned;
     }
 
     public void shuffleDeck(String deckId) {
-        Collections.shuffle(decks.get(deckId).getCards());
+        long start = System.nanoTime();
+        Deck deck = requireDeck(deckId);
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            shuffleStrategy.shuffle(deck.getState());
+            listeners.forEach(listener -> listener.deckShuffled(deck));
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordShuffle(start);
+    }
+
+    /**
+     * Atomically apply an ordered list of operations to a deck, with one lookup and under one lock.
+     * The operations are tried on a copy of the deck first, so the deck is left unchanged if any of them fails.
+     * They are then applied to the deck one by one, and listeners are notified of each change just like for the
+     * single operations, at the same versions.
+     *
+     * @param deckId  The unique ID of the deck
+     * @param request The operations and the optional version the deck must be at
+     * @return The deck version after the operations, and the result of each of them
+     * @throws InvalidInputException       An operation is not valid, or a card to return is already in the deck.
+     * @throws NotFoundException           The deck is not found or has too few cards for a deal.
+     * @throws PreconditionFailedException The deck is not at the expected version.
+     */
+    public DeckOperations.Response applyOperations(String deckId, DeckOperations.Request request) {
+        List<DeckOperations.Operation> operations = validateOperations(request);
+        long start = System.nanoTime();
+        Deck deck = requireDeck(deckId);
+        List<DeckOperations.Result> results = new ArrayList<>(operations.size());
+        long version;
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            CompactDeck state = deck.getState();
+            Long expectedVersion = request.expectedVersion();
+            if (expectedVersion != null && expectedVersion != state.version()) {
+                throw new PreconditionFailedException("Deck is at version " + state.version() + ", not " + expectedVersion);
+            }
+            List<byte[]> shuffles = tryOperations(state.copy(), operations);
+            int shuffle = 0;
+            for (DeckOperations.Operation operation : operations) {
+                switch (operation.op()) {
+                    case DeckOperations.SHUFFLE -> {
+                        // Same order as in the trial
+                        state.reorder(shuffles.get(shuffle++));
+                        listeners.forEach(listener -> listener.deckShuffled(deck));
+                        results.add(new DeckOperations.Result(DeckOperations.SHUFFLE, null));
+                    }
+                    case DeckOperations.DEAL -> {
+                        List<Card> dealt = new ArrayList<>(operation.count());
+                        for (int i = 0; i < operation.count(); i++) {
+                            dealt.add(Cards.of(state.deal()));
+                        }
+                        listeners.forEach(listener -> listener.cardsDealt(deck, dealt));
+                        results.add(new DeckOperations.Result(DeckOperations.DEAL, dealt));
+                    }
+                    default -> {
+                        Card card = Cards.of(Cards.codeOf(operation.card()));
+                        state.add(card.getIndex());
+                        listeners.forEach(listener -> listener.cardReturned(deck, card));
+                        results.add(new DeckOperations.Result(DeckOperations.RETURN, null));
+                    }
+                }
+            }
+            version = state.version();
+        } catch (RuntimeException e) {
+            metrics.recordOperations(start, false);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        metrics.recordOperations(start, true);
+        return new DeckOperations.Response(version, results);
+    }
+
+    /**
+     * Get the cards dealt from a deck and not returned yet
+     *
+     * @param deckId The unique ID of the deck
+     * @return List of dealt cards in suit and rank order, once per dealt copy for a shoe
+     * @throws NotFoundException The deck is not found.
+     */
+    public List<Card> getDealtCards(String deckId) {
+        Deck deck = requireDeck(deckId);
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            return deck.getState().dealtCards();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public boolean deckExists(String deckId) {
-        return decks.containsKey(deckId);
+        return decks.get(deckId) != null;
     }
 
     public List<String> getAllDeckIds() {
-        return new ArrayList<>(decks.keySet());
+        return new ArrayList<>(decks.ids());
+    }
+
+    /**
+     * Get a page of deck IDs in ID order. Decks created or deleted while paging may or may not be included,
+     * but every deck that exists throughout is returned exactly once.
+     *
+     * @param cursor The last deck ID of the previous page, or null for the first page
+     * @param limit  The maximum number of IDs to return
+     * @return List of deck IDs after the cursor
+     * @throws InvalidInputException The limit is out of range.
+     */
+    public List<String> getDeckIds(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<String> page = new ArrayList<>(Math.min(limit, 256));
+        Iterator<String> ids = (cursor == null ? decks.ids() : decks.ids().tailSet(cursor, false)).iterator();
+        while (page.size() < limit && ids.hasNext()) {
+            page.add(ids.next());
+        }
+        return page;
+    }
+
+    /**
+     * @return A live, weakly consistent view of the deck IDs in ID order, for streaming without a copy
+     */
+    public Iterable<String> deckIdView() {
+        return decks.ids();
+    }
+
+    public int getDeckCount() {
+        return decks.size();
+    }
+
+    /**
+     * Checked before the deck exists, so a misconfigured generator fails the request without changing anything
+     */
+    private String nextDeckId() {
+        String deckId = deckIdGenerator.nextId();
+        if (!Deck.isValidId(deckId)) {
+            throw new IllegalStateException("Deck ID generator produced an invalid ID: " + deckId);
+        }
+        return deckId;
+    }
+
+    /**
+     * Publish a new deck, unless its ID is taken. The deck's lock is held until listeners have seen the
+     * creation, so no change to the deck can be reported before it.
+     *
+     * @param adopted Whether the deck was handed over by another instance
+     */
+    private boolean register(Deck deck, boolean adopted) {
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            if (decks.putIfAbsent(deck) != null) {
+                return false;
+            }
+            lifecycle.track(deck);
+            if (adopted) {
+                listeners.forEach(listener -> listener.deckAdopted(deck));
+            } else {
+                listeners.forEach(listener -> listener.deckCreated(deck));
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a deck, unless it is already gone
+     */
+    private boolean remove(Deck deck) {
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            if (!decks.remove(deck)) {
+                return false;
+            }
+            listeners.forEach(listener -> listener.deckDeleted(deck));
+        } finally {
+            lock.unlock();
+        }
+        // After the deck lock: the lifecycle takes deck locks while holding its own
+        lifecycle.untrack(deck);
+        return true;
+    }
+
+    /**
+     * @return Whether the deck is still the one stored under its ID, i.e. not removed
+     */
+    public boolean isLive(Deck deck) {
+        return decks.get(deck.getId()) == deck;
+    }
+
+    private void evictSurplus() {
+        int maxDecks = lifecycle.maxDecks();
+        while (maxDecks > 0 && decks.size() > maxDecks && lifecycle.evict(this::remove)) {
+            // Evicted the least recently touched deck
+        }
+    }
+
+    /**
+     * Check the operations that can be checked without the deck, and default the deal count to 1
+     */
+    private static List<DeckOperations.Operation> validateOperations(DeckOperations.Request request) {
+        List<DeckOperations.Operation> operations = request == null ? null : request.ops();
+        if (operations == null || operations.isEmpty() || operations.size() > DeckOperations.MAX_OPERATIONS) {
+            throw new InvalidInputException("Between 1 and " + DeckOperations.MAX_OPERATIONS + " operations are required");
+        }
+        List<DeckOperations.Operation> validated = new ArrayList<>(operations.size());
+        for (DeckOperations.Operation operation : operations) {
+            String op = operation == null ? null : operation.op();
+            if (DeckOperations.DEAL.equals(op)) {
+                int count = operation.count() == null ? 1 : operation.count();
+                if (count <= 0) {
+                    throw new InvalidInputException("Number of cards to deal must be positive");
+                }
+                validated.add(new DeckOperations.Operation(op, count, null));
+            } else if (DeckOperations.RETURN.equals(op)) {
+                CardValidator.validate(operation.card());
+                validated.add(operation);
+            } else if (DeckOperations.SHUFFLE.equals(op)) {
+                validated.add(operation);
+            } else {
+                throw new InvalidInputException("Unknown operation: " + op);
+            }
+        }
+        return validated;
+    }
+
+    /**
+     * Run the operations on a copy of the deck, to find out whether all of them succeed before changing the deck
+     *
+     * @return The card order after each shuffle, to apply the same shuffles to the deck
+     */
+    private List<byte[]> tryOperations(CompactDeck trial, List<DeckOperations.Operation> operations) {
+        List<byte[]> shuffles = new ArrayList<>();
+        for (DeckOperations.Operation operation : operations) {
+            switch (operation.op()) {
+                case DeckOperations.SHUFFLE -> {
+                    shuffleStrategy.shuffle(trial);
+                    byte[] order = new byte[trial.size()];
+                    trial.copyOrder(order);
+                    shuffles.add(order);
+                }
+                case DeckOperations.DEAL -> {
+                    if (operation.count() > trial.size()) {
+                        throw NotFoundException.NOT_ENOUGH_CARDS;
+                    }
+                    for (int i = 0; i < operation.count(); i++) {
+                        trial.deal();
+                    }
+                }
+                default -> {
+                    int code = Cards.codeOf(operation.card());
+                    if (!trial.accepts(code)) {
+                        throw InvalidInputException.CARD_ALREADY_IN_DECK;
+                    }
+                    trial.add(code);
+                }
+            }
+        }
+        return shuffles;
+    }
+
+    /**
+     * The one lookup of a deck per operation
+     */
+    private Deck requireDeck(String deckId) {
+        Deck deck = decks.get(deckId);
+        if (deck == null) {
+            throw NotFoundException.DECK_NOT_FOUND;
+        }
+        lifecycle.touch(deck);
+        return deck;
     }
 }
@@ -0,0 +1,57 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The ConcurrentDeckStore class keeps all decks of a single instance in one {@link ConcurrentHashMap}.
+ *
+ * @author Viraj Ranaware
+ */
+public class ConcurrentDeckStore implements DeckStore {
+    private final Map<String, Deck> decks = new ConcurrentHashMap<>();
+    private final NavigableSet<String> deckIds = new ConcurrentSkipListSet<>(ID_ORDER);
+
+    @Override
+    public Deck get(String deckId) {
+        return decks.get(deckId);
+    }
+
+    @Override
+    public Deck putIfAbsent(Deck deck) {
+        Deck existing = decks.putIfAbsent(deck.getId(), deck);
+        if (existing == null) {
+            deckIds.add(deck.getId());
+        }
+        return existing;
+    }
+
+    @Override
+    public boolean remove(Deck deck) {
+        if (!decks.remove(deck.getId(), deck)) {
+            return false;
+        }
+        deckIds.remove(deck.getId());
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return decks.size();
+    }
+
+    @Override
+    public NavigableSet<String> ids() {
+        return Collections.unmodifiableNavigableSet(deckIds);
+    }
+
+    @Override
+    public Map<String, Deck> asMap() {
+        return decks;
+    }
+}
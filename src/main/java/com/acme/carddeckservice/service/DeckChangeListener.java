@@ -0,0 +1,41 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Deck;
+
+import java.util.List;
+
+/**
+ * The DeckChangeListener interface is notified of every change to a deck, e.g. to persist or publish it.
+ * Callbacks run on the request thread while the deck's lock is held, so they see the deck state and version
+ * right after the change, in the order the changes happened. They must be quick and must not block.
+ *
+ * @author Viraj Ranaware
+ */
+public interface DeckChangeListener {
+
+    default void deckCreated(Deck deck) {
+    }
+
+    /**
+     * The deck was handed over by another instance, with cards and version of its own. Defaults to a creation.
+     */
+    default void deckAdopted(Deck deck) {
+        deckCreated(deck);
+    }
+
+    default void cardsDealt(Deck deck, List<Card> cards) {
+    }
+
+    default void cardReturned(Deck deck, Card card) {
+    }
+
+    default void deckShuffled(Deck deck) {
+    }
+
+    /**
+     * The deck was deleted, expired or evicted
+     */
+    default void deckDeleted(Deck deck) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.acme.carddeckservice.service;
+
+/**
+ * The DeckIdGenerator interface generates unique deck IDs.
+ * Implementations must be thread-safe and cheap enough to call on every deck creation.
+ *
+ * @author Viraj Ranaware
+ */
+public interface DeckIdGenerator {
+
+    /**
+     * Generate the next deck ID
+     *
+     * @return A deck ID that has not been returned before by this generator
+     */
+    String nextId();
+
+    /**
+     * @return The length of the longest ID this generator can return, or 0 if not known in advance.
+     * A known length is checked against {@link com.acme.carddeckservice.model.Deck#MAX_ID_LENGTH} on startup.
+     */
+    default int maxLength() {
+        return 0;
+    }
+}
@@ -0,0 +1,285 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * The DeckLifecycle class removes idle decks after a TTL and evicts the least recently touched decks when
+ * there are more than a maximum number of decks. Both are off by default.
+ * <p>
+ * Time is counted in ticks. Decks are kept in a timer wheel with one bucket per tick, filed under the tick they
+ * were last seen touched. Touching a deck only records the current tick on the deck; the deck is moved to its
+ * new bucket when its old bucket comes due. Each tick therefore visits only the decks filed {@code ttl} ticks
+ * ago, never the whole map. Without a TTL, decks that stay untouched for a full wheel turn move to an idle queue,
+ * oldest first. Eviction takes decks from the idle queue, then from the oldest buckets, so it picks the least
+ * recently touched deck to within one tick.
+ * <p>
+ * Every deck records the tick it is filed under, so a deleted deck is unlinked from its bucket or the idle queue
+ * right away instead of staying referenced until its bucket comes due. Decks within a bucket are not ordered;
+ * an idle deck used since it went idle moves to the back of the idle queue instead of being evicted.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckLifecycle implements AutoCloseable {
+    private static final long DEFAULT_HORIZON_TICKS = 63;
+
+    private final long tickNanos;
+    private final long ttlTicks;
+    private final int maxDecks;
+    private final long horizon;
+    private final int mask;
+    private final Set<Deck>[] wheel;
+    // Oldest first, only used under the wheel lock
+    private final Set<Deck> idle = new LinkedHashSet<>();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    // A lock rather than synchronized: evictions take deck locks on request threads, which may be virtual threads
+    private final Lock wheelLock = new ReentrantLock();
+    private volatile long tick;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param ttl      Idle time after which a deck is removed, zero for no expiry
+     * @param maxDecks The maximum number of decks, zero for no limit
+     * @param tick     The resolution of the TTL and of least recently touched ordering
+     */
+    @SuppressWarnings("unchecked")
+    public DeckLifecycle(Duration ttl, int maxDecks, Duration tick) {
+        if (ttl.isNegative() || maxDecks < 0 || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("TTL and maximum decks must not be negative and the tick must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        this.ttlTicks = ttl.isZero() ? 0 : Math.max(1, (ttl.toNanos() + tickNanos - 1) / tickNanos);
+        this.maxDecks = maxDecks;
+        this.horizon = ttlTicks > 0 ? ttlTicks : DEFAULT_HORIZON_TICKS;
+        int buckets = Integer.highestOneBit((int) Math.min(horizon, 1 << 29)) << 1;
+        this.mask = buckets - 1;
+        this.wheel = new Set[isEnabled() ? buckets : 0];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    /**
+     * @return A lifecycle that keeps every deck until it is deleted
+     */
+    public static DeckLifecycle unbounded() {
+        return new DeckLifecycle(Duration.ZERO, 0, Duration.ofSeconds(1));
+    }
+
+    public boolean isEnabled() {
+        return ttlTicks > 0 || maxDecks > 0;
+    }
+
+    public int maxDecks() {
+        return maxDecks;
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return The decks in the wheel and the idle queue
+     */
+    int trackedCount() {
+        wheelLock.lock();
+        try {
+            int tracked = idle.size();
+            for (Set<Deck> bucket : wheel) {
+                tracked += bucket.size();
+            }
+            return tracked;
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Start advancing the wheel once per tick
+     *
+     * @param live   Tells whether a deck is still in the service
+     * @param remove Removes a deck from the service, false if it was already gone
+     */
+    public synchronized void start(Predicate<Deck> live, Predicate<Deck> remove) {
+        if (!isEnabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deck-lifecycle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        scheduler.scheduleAtFixedRate(() -> advance((System.nanoTime() - start) / tickNanos, live, remove),
+                tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Start tracking a new or recovered deck
+     */
+    void track(Deck deck) {
+        if (isEnabled()) {
+            long now = tick;
+            deck.touch(now);
+            deck.fileUnder(now);
+            wheel[index(now)].add(deck);
+        }
+    }
+
+    /**
+     * Stop tracking a removed deck
+     */
+    void untrack(Deck deck) {
+        if (!isEnabled()) {
+            return;
+        }
+        wheelLock.lock();
+        try {
+            if (!idle.remove(deck)) {
+                wheel[index(deck.getFiled())].remove(deck);
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Record that a deck was used
+     */
+    void touch(Deck deck) {
+        if (isEnabled()) {
+            deck.touch(tick);
+        }
+    }
+
+    /**
+     * Advance the wheel up to a tick, removing decks that have been idle for the TTL
+     */
+    void advance(long to, Predicate<Deck> live, Predicate<Deck> remove) {
+        wheelLock.lock();
+        try {
+            advanceLocked(to, live, remove);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the least recently touched deck
+     *
+     * @return true if a deck was evicted
+     */
+    boolean evict(Predicate<Deck> remove) {
+        wheelLock.lock();
+        try {
+            return evictLocked(remove);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private void advanceLocked(long to, Predicate<Deck> live, Predicate<Deck> remove) {
+        while (isEnabled() && tick < to) {
+            long now = tick + 1;
+            tick = now;
+            long due = now - horizon;
+            // New decks go to the bucket of the current tick, never to the due one
+            Iterator<Deck> bucket = wheel[index(due)].iterator();
+            while (bucket.hasNext()) {
+                Deck deck = bucket.next();
+                bucket.remove();
+                if (deck.getTouched() > due) {
+                    refile(deck);
+                } else if (ttlTicks > 0) {
+                    if (remove.test(deck)) {
+                        expired.increment();
+                    }
+                } else if (live.test(deck)) {
+                    idle.add(deck);
+                }
+            }
+        }
+    }
+
+    private boolean evictLocked(Predicate<Deck> remove) {
+        if (!isEnabled()) {
+            return false;
+        }
+        long now = tick;
+        List<Deck> touchedWhileIdle = new ArrayList<>();
+        Iterator<Deck> oldest = idle.iterator();
+        boolean removed = false;
+        while (!removed && oldest.hasNext()) {
+            Deck deck = oldest.next();
+            oldest.remove();
+            if (deck.getTouched() > now - horizon) {
+                refile(deck);
+            } else if (deck.getTouched() > deck.getFiled()) {
+                // Used since it went idle, but not recently: back of the queue
+                deck.fileUnder(deck.getTouched());
+                touchedWhileIdle.add(deck);
+            } else {
+                removed = remove.test(deck);
+            }
+        }
+        idle.addAll(touchedWhileIdle);
+        if (removed) {
+            evicted.increment();
+            return true;
+        }
+        for (long due = now - horizon + 1; due <= now; due++) {
+            Iterator<Deck> bucket = wheel[index(due)].iterator();
+            while (bucket.hasNext()) {
+                Deck deck = bucket.next();
+                bucket.remove();
+                if (deck.getTouched() > due) {
+                    refile(deck);
+                } else if (remove.test(deck)) {
+                    evicted.increment();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * File a deck under the tick it was last touched in
+     */
+    private void refile(Deck deck) {
+        long touched = deck.getTouched();
+        deck.fileUnder(touched);
+        wheel[index(touched)].add(deck);
+    }
+
+    private int index(long tick) {
+        return (int) tick & mask;
+    }
+}
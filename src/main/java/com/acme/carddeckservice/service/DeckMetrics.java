@@ -0,0 +1,178 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The DeckMetrics class times deck operations and keeps the deck population gauges.
+ * <p>
+ * Operations are recorded in the {@code card.deck.operations} timer, tagged with the {@code operation}
+ * (create, deal, return, shuffle, ops) and its {@code outcome}. Every timer is created up front, so recording is
+ * a clock read and a few atomic adds. The number of cards held by all decks ({@code card.deck.cards}) and the
+ * number of decks per cards remaining ({@code card.deck.remaining}, cumulative over the {@code le} tag like a
+ * Prometheus histogram) are kept up to date as a {@link DeckChangeListener}, so a scrape never walks the decks.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckMetrics implements DeckChangeListener {
+    private static final int[] REMAINING_BOUNDS = {0, 5, 10, 20, 30, 40, 51, 52, 104, 208, 312};
+    // Bucket of each possible number of cards remaining, the last bucket is +Inf
+    private static final byte[] BUCKETS = new byte[CompactDeck.MAX_DECKS * Cards.DECK_SIZE + 1];
+
+    static {
+        int bucket = 0;
+        for (int remaining = 0; remaining < BUCKETS.length; remaining++) {
+            while (bucket < REMAINING_BOUNDS.length && remaining > REMAINING_BOUNDS[bucket]) {
+                bucket++;
+            }
+            BUCKETS[remaining] = (byte) bucket;
+        }
+    }
+
+    private final Timer created;
+    private final Timer dealt;
+    private final Timer dealtEmpty;
+    private final Timer returned;
+    private final Timer returnRejected;
+    private final Timer shuffled;
+    private final Timer applied;
+    private final Timer appliedRejected;
+    private final Counter idCollisions;
+    private final LongAdder cards = new LongAdder();
+    private final LongAdder[] remaining = new LongAdder[REMAINING_BOUNDS.length + 1];
+
+    public DeckMetrics(MeterRegistry registry) {
+        this.created = operation(registry, "create", "ok");
+        this.dealt = operation(registry, "deal", "ok");
+        this.dealtEmpty = operation(registry, "deal", "empty");
+        this.returned = operation(registry, "return", "ok");
+        this.returnRejected = operation(registry, "return", "rejected");
+        this.shuffled = operation(registry, "shuffle", "ok");
+        this.applied = operation(registry, "ops", "ok");
+        this.appliedRejected = operation(registry, "ops", "rejected");
+        this.idCollisions = Counter.builder("card.deck.id.collisions")
+                .description("Generated deck IDs that were already taken and had to be retried")
+                .register(registry);
+        Gauge.builder("card.deck.cards", cards, LongAdder::sum)
+                .description("Cards remaining in all decks")
+                .register(registry);
+        for (int bucket = 0; bucket < remaining.length; bucket++) {
+            remaining[bucket] = new LongAdder();
+            int upTo = bucket;
+            String le = bucket < REMAINING_BOUNDS.length ? String.valueOf(REMAINING_BOUNDS[bucket]) : "+Inf";
+            Gauge.builder("card.deck.remaining", this, metrics -> metrics.decksUpTo(upTo))
+                    .description("Decks with at most le cards remaining")
+                    .tag("le", le)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @return Metrics that are not published anywhere
+     */
+    public static DeckMetrics disabled() {
+        return new DeckMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordCreate(long startNanos) {
+        record(created, startNanos);
+    }
+
+    public void recordDeal(long startNanos, boolean ok) {
+        record(ok ? dealt : dealtEmpty, startNanos);
+    }
+
+    public void recordReturn(long startNanos, boolean ok) {
+        record(ok ? returned : returnRejected, startNanos);
+    }
+
+    public void recordShuffle(long startNanos) {
+        record(shuffled, startNanos);
+    }
+
+    /**
+     * @param ok false if the operations were rejected and the deck left unchanged
+     */
+    public void recordOperations(long startNanos, boolean ok) {
+        record(ok ? applied : appliedRejected, startNanos);
+    }
+
+    public void recordIdCollision() {
+        idCollisions.increment();
+    }
+
+    public long cards() {
+        return cards.sum();
+    }
+
+    /**
+     * @return The number of decks with at most the upper bound of the bucket cards remaining
+     */
+    public long decksUpTo(int bucket) {
+        long decks = 0;
+        for (int i = 0; i <= bucket; i++) {
+            decks += remaining[i].sum();
+        }
+        return decks;
+    }
+
+    @Override
+    public void deckCreated(Deck deck) {
+        int size = deck.getState().size();
+        cards.add(size);
+        remaining[BUCKETS[size]].increment();
+    }
+
+    @Override
+    public void cardsDealt(Deck deck, List<Card> dealtCards) {
+        int size = deck.getState().size();
+        cards.add(-dealtCards.size());
+        resize(size + dealtCards.size(), size);
+    }
+
+    @Override
+    public void cardReturned(Deck deck, Card card) {
+        int size = deck.getState().size();
+        cards.increment();
+        resize(size - 1, size);
+    }
+
+    @Override
+    public void deckDeleted(Deck deck) {
+        int size = deck.getState().size();
+        cards.add(-size);
+        remaining[BUCKETS[size]].decrement();
+    }
+
+    private void resize(int before, int after) {
+        int from = BUCKETS[before];
+        int to = BUCKETS[after];
+        if (from != to) {
+            remaining[from].decrement();
+            remaining[to].increment();
+        }
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer operation(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("card.deck.operations")
+                .description("Deck operations on existing decks")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
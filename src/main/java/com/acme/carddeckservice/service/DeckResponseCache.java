@@ -0,0 +1,161 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.codec.CardBinaryCodec;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.MediaType;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32C;
+
+/**
+ * The DeckResponseCache class keeps the serialized JSON of recently read decks, so a deck that has not changed
+ * since it was last read is written from cached bytes and a matching {@code If-None-Match} needs no body at all.
+ * An entry is valid as long as the deck's version is the one it was serialized at; every change bumps the version,
+ * so stale entries are never served and are simply replaced on the next read.
+ * Entries are weighed by their size and the least recently used ones are evicted above {@code maxBytes}.
+ * The compact {@link CardBinaryCodec} form of the deck is kept next to the JSON.
+ *
+ * @author Viraj Ranaware
+ */
+public class DeckResponseCache implements DeckChangeListener {
+    // Rough size of an entry besides the body bytes, so many tiny entries still count
+    private static final int ENTRY_OVERHEAD = 192;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, DeckResponse> cache;
+
+    /**
+     * @param maxBytes The maximum size of all cached responses, zero to serialize every time
+     */
+    public DeckResponseCache(ObjectMapper objectMapper, long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String deckId, DeckResponse response) ->
+                        response.json().bytes().length + response.binary().bytes().length + ENTRY_OVERHEAD)
+                .build();
+    }
+
+    /**
+     * Get the serialized deck, from the cache if the deck has not changed since it was cached
+     *
+     * @param deck The deck
+     * @return The deck's JSON and binary bodies at its current version
+     */
+    public DeckResponse get(Deck deck) {
+        DeckResponse cached = cache.getIfPresent(deck.getId());
+        // Reading the version without the deck lock is fine: a concurrent change only causes a miss
+        if (cached != null && cached.state() == deck.getState() && cached.version() == deck.getState().version()) {
+            return cached;
+        }
+        DeckResponse response = serialize(deck);
+        cache.put(deck.getId(), response);
+        return response;
+    }
+
+    @Override
+    public void deckDeleted(Deck deck) {
+        cache.invalidate(deck.getId());
+    }
+
+    private DeckResponse serialize(Deck deck) {
+        long version;
+        byte[] order;
+        Lock lock = deck.getLock();
+        lock.lock();
+        try {
+            version = deck.getState().version();
+            order = new byte[deck.getState().size()];
+            deck.getState().copyOrder(order);
+        } finally {
+            lock.unlock();
+        }
+        List<Card> cards = new ArrayList<>(order.length);
+        for (byte code : order) {
+            cards.add(Cards.of(code));
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new DeckBody(deck.getId(), cards));
+            byte[] binary = CardBinaryCodec.encodeDeck(deck.getId(), order);
+            return new DeckResponse(deck.getState(), version, order.length,
+                    new Body(json, eTag(version, json, ""), MediaType.APPLICATION_JSON),
+                    new Body(binary, eTag(version, binary, "-b"), CardBinaryCodec.MEDIA_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Version and checksum of the exact bytes: a recreated deck with the same ID and version gets a new ETag.
+     * The suffix keeps the ETags of different representations apart.
+     */
+    private static String eTag(long version, byte[] bytes, String suffix) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes);
+        return "\"" + Long.toString(version, 36) + "-" + Long.toHexString(checksum.getValue()) + suffix + "\"";
+    }
+
+    /**
+     * The JSON body of a deck, in the same shape as {@link Deck}
+     */
+    private record DeckBody(String id, List<Card> cards) {
+    }
+
+    /**
+     * A serialized deck
+     *
+     * @param state   The deck state it was serialized from, so a deck recreated under the same ID is not mixed up
+     * @param version The version it was serialized at
+     * @param size    The number of cards at that version
+     * @param json    The JSON body
+     * @param binary  The {@link CardBinaryCodec} body
+     */
+    public record DeckResponse(CompactDeck state, long version, int size, Body json, Body binary) {
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public Body body(boolean binary) {
+            return binary ? this.binary : json;
+        }
+    }
+
+    /**
+     * One representation of a serialized deck
+     *
+     * @param bytes     The body
+     * @param eTag      Strong ETag of the body, quoted
+     * @param mediaType The content type of the body
+     */
+    public record Body(byte[] bytes, String eTag, MediaType mediaType) {
+
+        /**
+         * @param ifNoneMatch The If-None-Match request header, may be null
+         * @return true if the client already has this body
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                // If-None-Match uses weak comparison, so W/ prefixed tags match too
+                if (tag.equals("*") || tag.equals(eTag) || (tag.startsWith("W/") && tag.substring(2).equals(eTag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
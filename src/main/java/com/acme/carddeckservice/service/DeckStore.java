@@ -0,0 +1,49 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+
+/**
+ * The DeckStore interface keeps the decks of the CardDeckService by ID, with an index of the IDs in ID order.
+ * Implementations must be thread-safe. Changes to a deck's registration are made while the deck's lock is held.
+ *
+ * @author Viraj Ranaware
+ */
+public interface DeckStore {
+
+    /**
+     * Shorter IDs first, so sequence IDs list in numeric order
+     */
+    Comparator<String> ID_ORDER = Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    Deck get(String deckId);
+
+    /**
+     * Add a deck, unless its ID is taken
+     *
+     * @return The deck already stored under the ID, or null if the deck was added
+     */
+    Deck putIfAbsent(Deck deck);
+
+    /**
+     * Remove a deck, unless another deck is stored under its ID
+     *
+     * @return true if the deck was removed
+     */
+    boolean remove(Deck deck);
+
+    int size();
+
+    /**
+     * @return A live, weakly consistent, unmodifiable view of the deck IDs in {@link #ID_ORDER}
+     */
+    NavigableSet<String> ids();
+
+    /**
+     * @return A live view of the decks by ID
+     */
+    Map<String, Deck> asMap();
+}
@@ -0,0 +1,33 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.CompactDeck;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * The FastShuffleStrategy class shuffles with an L64X128MixRandom split off a shared one for each shuffle,
+ * so shuffles never share generator state and nothing is cached per thread, which would not pay off on
+ * virtual threads. Only the split is locked, the shuffle itself is not.
+ * Not suitable where shuffles must be unpredictable to an attacker, see {@link SecureShuffleStrategy}.
+ *
+ * @author Viraj Ranaware
+ */
+public class FastShuffleStrategy implements ShuffleStrategy {
+    private final SplittableGenerator root = SplittableGenerator.of("L64X128MixRandom");
+    private final Lock lock = new ReentrantLock();
+
+    @Override
+    public void shuffle(CompactDeck deck) {
+        RandomGenerator random;
+        lock.lock();
+        try {
+            random = root.split();
+        } finally {
+            lock.unlock();
+        }
+        deck.shuffle(random);
+    }
+}
@@ -0,0 +1,41 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+
+/**
+ * The NodeDeckIdGenerator class generates deck IDs prefixed with the ID of the service instance,
+ * e.g. {@code n1-2bx}, so instances of a multi-instance deployment never hand out the same ID.
+ * The suffix is a {@link SequenceDeckIdGenerator} value in base 36.
+ *
+ * @author Viraj Ranaware
+ */
+public class NodeDeckIdGenerator implements DeckIdGenerator {
+    private final String prefix;
+    private final SequenceDeckIdGenerator sequence;
+
+    /**
+     * @param nodeId Unique ID of this instance, letters and digits only
+     * @throws IllegalArgumentException The node ID is empty, not alphanumeric or too long for the deck IDs.
+     */
+    public NodeDeckIdGenerator(String nodeId) {
+        if (nodeId == null || !nodeId.matches("[A-Za-z0-9]+")) {
+            throw new IllegalArgumentException("Node id must be alphanumeric: " + nodeId);
+        }
+        this.prefix = nodeId + "-";
+        this.sequence = new SequenceDeckIdGenerator();
+        if (maxLength() > Deck.MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Node id is too long, deck IDs must not exceed " + Deck.MAX_ID_LENGTH
+                    + " characters: " + nodeId);
+        }
+    }
+
+    @Override
+    public int maxLength() {
+        return prefix.length() + Long.toString(Long.MAX_VALUE, Character.MAX_RADIX).length();
+    }
+
+    @Override
+    public String nextId() {
+        return prefix.concat(Long.toString(sequence.nextValue(), Character.MAX_RADIX));
+    }
+}
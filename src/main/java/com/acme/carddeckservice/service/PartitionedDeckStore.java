@@ -0,0 +1,142 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * The PartitionedDeckStore class keeps decks in one map per shard, the shard being derived from the deck ID.
+ * A shard is the unit that moves between instances of a cluster, so the decks of one shard can be handed
+ * over without scanning the others.
+ *
+ * @author Viraj Ranaware
+ */
+public class PartitionedDeckStore implements DeckStore {
+    private final Map<String, Deck>[] partitions;
+    private final ToIntFunction<String> shardOf;
+    private final NavigableSet<String> deckIds = new ConcurrentSkipListSet<>(ID_ORDER);
+    private final LongAdder size = new LongAdder();
+    private final Map<String, Deck> view = new DeckMapView();
+
+    /**
+     * @param shards  The number of shards
+     * @param shardOf The shard of a deck ID, {@code 0 <= shard < shards}
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionedDeckStore(int shards, ToIntFunction<String> shardOf) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive");
+        }
+        this.partitions = new Map[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            partitions[shard] = new ConcurrentHashMap<>();
+        }
+        this.shardOf = shardOf;
+    }
+
+    @Override
+    public Deck get(String deckId) {
+        return partition(deckId).get(deckId);
+    }
+
+    @Override
+    public Deck putIfAbsent(Deck deck) {
+        Deck existing = partition(deck.getId()).putIfAbsent(deck.getId(), deck);
+        if (existing == null) {
+            deckIds.add(deck.getId());
+            size.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public boolean remove(Deck deck) {
+        if (!partition(deck.getId()).remove(deck.getId(), deck)) {
+            return false;
+        }
+        deckIds.remove(deck.getId());
+        size.decrement();
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size.intValue();
+    }
+
+    @Override
+    public NavigableSet<String> ids() {
+        return Collections.unmodifiableNavigableSet(deckIds);
+    }
+
+    @Override
+    public Map<String, Deck> asMap() {
+        return view;
+    }
+
+    public int shards() {
+        return partitions.length;
+    }
+
+    /**
+     * @return A live view of the decks of one shard
+     */
+    public Collection<Deck> decksIn(int shard) {
+        return Collections.unmodifiableCollection(partitions[shard].values());
+    }
+
+    private Map<String, Deck> partition(String deckId) {
+        return partitions[shardOf.applyAsInt(deckId)];
+    }
+
+    /**
+     * Read-only view over all partitions, e.g. for snapshots
+     */
+    private final class DeckMapView extends AbstractMap<String, Deck> {
+
+        @Override
+        public Deck get(Object deckId) {
+            return deckId instanceof String id ? PartitionedDeckStore.this.get(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object deckId) {
+            return get(deckId) != null;
+        }
+
+        @Override
+        public int size() {
+            return PartitionedDeckStore.this.size();
+        }
+
+        @Override
+        public Set<Entry<String, Deck>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Deck>> iterator() {
+                    return Arrays.stream(partitions)
+                            .flatMap(partition -> partition.entrySet().stream())
+                            .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return PartitionedDeckStore.this.size();
+                }
+            };
+        }
+    }
+}
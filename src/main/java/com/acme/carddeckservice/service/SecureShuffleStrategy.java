@@ -0,0 +1,21 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.CompactDeck;
+
+import java.security.SecureRandom;
+
+/**
+ * The SecureShuffleStrategy class shuffles with one shared, thread-safe {@link SecureRandom},
+ * for regulated games where the deck order must not be predictable from earlier shuffles.
+ * It is seeded once, not on every new request thread.
+ *
+ * @author Viraj Ranaware
+ */
+public class SecureShuffleStrategy implements ShuffleStrategy {
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public void shuffle(CompactDeck deck) {
+        deck.shuffle(random);
+    }
+}
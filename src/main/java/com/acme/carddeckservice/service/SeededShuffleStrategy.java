@@ -0,0 +1,35 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.CompactDeck;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * The SeededShuffleStrategy class shuffles with one L64X128MixRandom created from a fixed seed.
+ * Replaying the same sequence of operations from a fresh start produces the same deck orders,
+ * which is used to reproduce incidents. All shuffles share the generator, so this strategy does not scale
+ * and is not meant for production traffic.
+ *
+ * @author Viraj Ranaware
+ */
+public class SeededShuffleStrategy implements ShuffleStrategy {
+    private final RandomGenerator random;
+    private final Lock lock = new ReentrantLock();
+
+    public SeededShuffleStrategy(long seed) {
+        this.random = RandomGeneratorFactory.of("L64X128MixRandom").create(seed);
+    }
+
+    @Override
+    public void shuffle(CompactDeck deck) {
+        lock.lock();
+        try {
+            deck.shuffle(random);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.acme.carddeckservice.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The SequenceDeckIdGenerator class generates short numeric deck IDs from a striped sequence.
+ * Like {@link java.util.concurrent.atomic.LongAdder}, threads increment one of several padded counters
+ * instead of contending on a single one. Stripe {@code s} of {@code n} hands out {@code s + 1}, {@code s + 1 + n}, ...
+ * so the IDs never collide, but they are only roughly ordered.
+ *
+ * @author Viraj Ranaware
+ */
+public class SequenceDeckIdGenerator implements DeckIdGenerator {
+    // One counter per 128 bytes to keep stripes on separate cache lines
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray counters;
+    private final int stripes;
+
+    public SequenceDeckIdGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes Minimum number of counters, rounded up to a power of two
+     */
+    public SequenceDeckIdGenerator(int stripes) {
+        this.stripes = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.counters = new AtomicLongArray(this.stripes * PADDING);
+    }
+
+    @Override
+    public String nextId() {
+        return Long.toString(nextValue());
+    }
+
+    @Override
+    public int maxLength() {
+        return Long.toString(Long.MAX_VALUE).length();
+    }
+
+    /**
+     * @return The next sequence value, starting at 1
+     */
+    public long nextValue() {
+        // Stable per thread, and unlike Thread.getId() not deprecated on newer JDKs
+        int stripe = System.identityHashCode(Thread.currentThread()) & (stripes - 1);
+        return counters.getAndIncrement(stripe * PADDING) * stripes + stripe + 1;
+    }
+}
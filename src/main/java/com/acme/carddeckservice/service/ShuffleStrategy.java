@@ -0,0 +1,20 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.CompactDeck;
+
+/**
+ * The ShuffleStrategy interface decides where the randomness of a shuffle comes from.
+ * The deck is shuffled in place with Fisher-Yates, see {@link CompactDeck#shuffle}.
+ * Implementations are called with the deck's lock held and must be thread-safe across decks.
+ *
+ * @author Viraj Ranaware
+ */
+public interface ShuffleStrategy {
+
+    /**
+     * Shuffle a deck in place
+     *
+     * @param deck The deck to shuffle
+     */
+    void shuffle(CompactDeck deck);
+}
@@ -0,0 +1,66 @@
+package com.acme.carddeckservice.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The StripedLocks class maps deck IDs onto a fixed table of locks.
+ * Operations on the same deck always take the same lock, while independent decks
+ * spread over the stripes instead of sharing one global lock.
+ * A lock that is busy when taken is counted, with the time spent waiting for it. An uncontended lock is
+ * taken without a clock read, so counting costs nothing until decks actually contend.
+ *
+ * @author Viraj Ranaware
+ */
+public class StripedLocks {
+    private final Lock[] stripes;
+    private final int mask;
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * @param stripes Minimum number of stripes, rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new CountingLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock lockFor(String deckId) {
+        int hash = deckId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /**
+     * @return The number of times a lock was busy when taken
+     */
+    public long contendedCount() {
+        return contended.sum();
+    }
+
+    /**
+     * @return The total time spent waiting for busy locks, in nanoseconds
+     */
+    public long waitNanos() {
+        return waitNanos.sum();
+    }
+
+    private final class CountingLock extends ReentrantLock {
+
+        @Override
+        public void lock() {
+            if (tryLock()) {
+                return;
+            }
+            long start = System.nanoTime();
+            super.lock();
+            waitNanos.add(System.nanoTime() - start);
+            contended.increment();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.acme.carddeckservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The TimeOrderedDeckIdGenerator class generates ULID-style deck IDs:
+ * a 48-bit millisecond timestamp followed by 80 random bits, written as 26 Crockford base32 characters.
+ * IDs sort by creation time and need no coordination between threads or instances.
+ *
+ * @author Viraj Ranaware
+ */
+public class TimeOrderedDeckIdGenerator implements DeckIdGenerator {
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 26;
+
+    @Override
+    public int maxLength() {
+        return LENGTH;
+    }
+
+    @Override
+    public String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long time = System.currentTimeMillis();
+        long randomHigh = random.nextLong() & 0xFFFFL;
+        long randomLow = random.nextLong();
+
+        char[] id = new char[LENGTH];
+        // 48-bit timestamp, 10 characters
+        for (int i = 9; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (time & 31)];
+            time >>>= 5;
+        }
+        // 80 random bits, 16 characters: 4 from the 16 high bits and 12 from the low 64 bits
+        for (int i = LENGTH - 1; i >= 14; i--) {
+            id[i] = ALPHABET[(int) (randomLow & 31)];
+            randomLow >>>= 5;
+        }
+        long remaining = (randomHigh << 4) | randomLow;
+        for (int i = 13; i >= 10; i--) {
+            id[i] = ALPHABET[(int) (remaining & 31)];
+            remaining >>>= 5;
+        }
+        return new String(id);
+    }
+}
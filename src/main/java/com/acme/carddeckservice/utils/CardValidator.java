@@ -0,0 +1,62 @@
+package com.acme.carddeckservice.utils;
+
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.model.Card;
+
+/**
+ * The CardValidator class checks that a card sent by a client is a card of a standard deck,
+ * with the same error messages on every web stack. Valid cards are accepted without any string work.
+ *
+ * @author Viraj Ranaware
+ */
+public final class CardValidator {
+
+    private CardValidator() {
+    }
+
+    /**
+     * Validate card format. Whether the card is already in the deck is checked atomically when it is returned.
+     *
+     * @param card The card object
+     * @throws InvalidInputException The card is null, empty or not a valid card.
+     */
+    public static void validate(Card card) throws InvalidInputException {
+        // Standard cards were matched once when the card was read, only invalid ones need a message
+        if (card != null && card.isValid()) {
+            return;
+        }
+        if (card == null) {
+            throw new InvalidInputException("Card cannot be null or empty");
+        }
+
+        if (card.getSuit() == null || card.getRank() == null) {
+            throw new InvalidInputException("Invalid card - suit and rank must be provided");
+        }
+
+        if (card.getSuit().isEmpty() || card.getSuit().isBlank()) {
+            throw new InvalidInputException("Invalid card - suit cannot be empty");
+        }
+
+        if (card.getRank().isEmpty() || card.getRank().isBlank()) {
+            throw new InvalidInputException("Invalid card - rank cannot be empty");
+        }
+
+        if (!Constants.SUITS.contains(card.getSuit())) {
+            throw new InvalidInputException(new StringBuilder()
+                    .append("Invalid suit: ")
+                    .append(card.getSuit())
+                    .append(", valid suits are: ")
+                    .append(Constants.SUITS)
+                    .toString());
+        }
+
+        if (!Constants.RANKS.contains(card.getRank())) {
+            throw new InvalidInputException(new StringBuilder()
+                    .append("Invalid rank: ")
+                    .append(card.getRank())
+                    .append(", valid ranks are:")
+                    .append(Constants.RANKS)
+                    .toString());
+        }
+    }
+}
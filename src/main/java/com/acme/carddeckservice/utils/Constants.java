@@ -1,5 +1,6 @@
 package com.acme.carddeckservice.utils;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -8,9 +9,13 @@ import java.util.Set;
  * @author Viraj Ranaware
  */
 public class Constants {
-    public static final Set<String> SUITS = Set.of("Hearts", "Diamonds", "Clubs", "Spades");
-    public static final Set<String> RANKS = Set.of("2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King", "Ace");
+    public static final List<String> SUIT_ORDER = List.of("Hearts", "Diamonds", "Clubs", "Spades");
+    public static final List<String> RANK_ORDER = List.of("2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King", "Ace");
+    public static final Set<String> SUITS = Set.copyOf(SUIT_ORDER);
+    public static final Set<String> RANKS = Set.copyOf(RANK_ORDER);
     public static final String INVALID_REQUEST = "INVALID_REQUEST";
     public static final String RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
+    public static final String PRECONDITION_FAILED = "PRECONDITION_FAILED";
+    public static final String UNAUTHORIZED = "UNAUTHORIZED";
     public static final String INTERNAL_SERVER_ERROR = "INTERNAL_SERVER_ERROR";
 }
@@ -0,0 +1,67 @@
+package com.acme.carddeckservice.cluster;
+
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckLifecycle;
+import com.acme.carddeckservice.service.DeckMetrics;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.PartitionedDeckStore;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTest {
+    private static final int SHARDS = 64;
+
+    @Test
+    void retainsShardsThatCouldNotBeHandedOver() {
+        DeckCluster cluster = new DeckCluster("n1", ShardRing.parse("n1=http://localhost:8081", SHARDS));
+        CardDeckService cardDeckService = new CardDeckService(new PartitionedDeckStore(SHARDS, cluster::shardOf),
+                new ShardedDeckIdGenerator(new SequenceDeckIdGenerator(), cluster), new FastShuffleStrategy(), List.of(),
+                DeckLifecycle.unbounded(), DeckMetrics.disabled());
+        List<Deck> decks = cardDeckService.createNewDecks(100, 1);
+        // Nothing listens on port 1
+        ShardRebalancer rebalancer = new ShardRebalancer(cluster, cardDeckService, RestClient.create());
+
+        int retained = rebalancer.join("n2", "http://localhost:1");
+
+        assertTrue(retained > 0);
+        assertEquals(retained, cluster.retainedShards());
+        assertEquals(SHARDS, cluster.ownedShards().length);
+        for (Deck deck : decks) {
+            assertTrue(cardDeckService.deckExists(deck.getId()), deck.getId());
+            assertNull(cluster.remoteOwnerOf(deck.getId()), deck.getId());
+        }
+    }
+
+    @Test
+    void rejectsInvalidTransfersBeforeAdoptingAny() {
+        DeckCluster cluster = new DeckCluster("n1", ShardRing.parse("n1=http://localhost:8081", SHARDS));
+        CardDeckService cardDeckService = new CardDeckService(new PartitionedDeckStore(SHARDS, cluster::shardOf),
+                new ShardedDeckIdGenerator(new SequenceDeckIdGenerator(), cluster), new FastShuffleStrategy(), List.of(),
+                DeckLifecycle.unbounded(), DeckMetrics.disabled());
+        ShardRebalancer rebalancer = new ShardRebalancer(cluster, cardDeckService, RestClient.create());
+        DeckTransfer valid = new DeckTransfer("1-a", 1, new byte[]{0, 1, 2}, 49);
+
+        for (DeckTransfer invalid : List.of(
+                new DeckTransfer("1-b", 0, new byte[]{0}, 1),
+                new DeckTransfer("1-b", CompactDeck.MAX_DECKS + 1, new byte[]{0}, 1),
+                new DeckTransfer("1-b", 1, new byte[]{52}, 1),
+                new DeckTransfer("1-b", 1, new byte[]{3, 3}, 1),
+                new DeckTransfer("1-b", 1, null, 1),
+                new DeckTransfer("1-b", 1, new byte[]{3}, -1),
+                new DeckTransfer("1-a", 1, new byte[]{3}, 1))) {
+            assertThrows(InvalidInputException.class, () -> rebalancer.adopt(List.of(valid, invalid)));
+        }
+        assertEquals(0, cardDeckService.getDeckCount());
+
+        assertEquals(1, rebalancer.adopt(List.of(valid)));
+        assertEquals(3, cardDeckService.getDeck("1-a").getCards().size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.acme.carddeckservice.cluster;
+
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+    private static final int SHARDS = 256;
+    private final ShardRing ring = ShardRing.parse("n1=http://a:8080, n2=http://b:8080, n3=http://c:8080", SHARDS);
+
+    @Test
+    void spreadsShardsOverAllNodes() {
+        Map<String, Integer> owned = new HashMap<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            owned.merge(ring.ownerOf(shard), 1, Integer::sum);
+        }
+        assertEquals(3, owned.size());
+        owned.values().forEach(count -> assertTrue(count > SHARDS / 6, "Shards per node " + owned));
+    }
+
+    @Test
+    void joiningNodeOnlyTakesShards() {
+        ShardRing joined = ring.withNode("n4", "http://d:8080");
+        int moved = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (!ring.ownerOf(shard).equals(joined.ownerOf(shard))) {
+                assertEquals("n4", joined.ownerOf(shard));
+                moved++;
+            }
+        }
+        assertTrue(moved > 0 && moved < SHARDS / 2, "Moved " + moved);
+        assertEquals(ring.ownerOf(7), joined.withoutNode("n4").ownerOf(7));
+    }
+
+    @Test
+    void onlyShardsOfLeavingNodeMove() {
+        ShardRing left = ring.withoutNode("n2");
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (!ring.ownerOf(shard).equals("n2")) {
+                assertEquals(ring.ownerOf(shard), left.ownerOf(shard));
+            } else {
+                assertNotEquals("n2", left.ownerOf(shard));
+            }
+        }
+    }
+
+    @Test
+    void deckIdsOfGeneratorBelongToShardsOfTheNode() {
+        DeckCluster cluster = new DeckCluster("n2", ring);
+        ShardedDeckIdGenerator generator = new ShardedDeckIdGenerator(new SequenceDeckIdGenerator(), cluster);
+        for (int i = 0; i < 100; i++) {
+            String deckId = generator.nextId();
+            assertEquals("n2", ring.ownerOf(ring.shardOf(deckId)), deckId);
+            assertNull(cluster.remoteOwnerOf(deckId));
+        }
+        int shard = ring.shardOf("not-sharded");
+        assertTrue(shard >= 0 && shard < SHARDS);
+        assertThrows(IllegalArgumentException.class, () -> new DeckCluster("n9", ring));
+    }
+}
@@ -0,0 +1,59 @@
+package com.acme.carddeckservice.codec;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardBinaryCodecTest {
+    private final Card queenOfHearts = Card.of("Hearts", "Queen");
+    private final Card tenOfSpades = Card.of("Spades", "10");
+
+    @Test
+    void encodesCardsAndHands() {
+        assertArrayEquals(new byte[]{10}, CardBinaryCodec.encode(queenOfHearts));
+        assertArrayEquals(new byte[]{0, 2, 10, 47}, CardBinaryCodec.encode(List.of(queenOfHearts, tenOfSpades)));
+        assertArrayEquals(new byte[]{0, 2, 0, 1, 10, 0, 0},
+                CardBinaryCodec.encode(List.of(List.of(queenOfHearts), List.of())));
+        assertArrayEquals(new byte[]{2, 'd', '1', 0, 1, 47}, CardBinaryCodec.encodeDeck("d1", new byte[]{47}));
+        assertEquals(queenOfHearts, CardBinaryCodec.decodeCard(new byte[]{10}));
+        assertThrows(IllegalArgumentException.class, () -> CardBinaryCodec.decodeCard(new byte[]{52}));
+        assertThrows(IllegalArgumentException.class, () -> CardBinaryCodec.decodeCard(new byte[]{1, 2}));
+    }
+
+    @Test
+    void encodesOnlyCardTypes() {
+        assertTrue(CardBinaryCodec.canEncode(ResolvableType.forClassWithGenerics(List.class, Card.class)));
+        assertFalse(CardBinaryCodec.canEncode(ResolvableType.forClassWithGenerics(List.class, String.class)));
+        assertFalse(CardBinaryCodec.canEncode(ResolvableType.forClass(String.class)));
+    }
+
+    @Test
+    void prefersJsonUnlessAskedByName() {
+        assertFalse(CardBinaryCodec.isPreferred(MediaType.parseMediaTypes("*/*")));
+        assertFalse(CardBinaryCodec.isPreferred(MediaType.parseMediaTypes("application/json")));
+        assertTrue(CardBinaryCodec.isPreferred(MediaType.parseMediaTypes("application/vnd.card-deck")));
+        assertTrue(CardBinaryCodec.isPreferred(
+                MediaType.parseMediaTypes("application/json;q=0.5, application/vnd.card-deck")));
+        assertFalse(CardBinaryCodec.isPreferred(
+                MediaType.parseMediaTypes("application/json, application/vnd.card-deck;q=0.5")));
+    }
+
+    @Test
+    void readsShortCodesFromJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(queenOfHearts, objectMapper.readValue("\"QH\"", Card.class));
+        assertEquals(tenOfSpades, objectMapper.readValue("\"10S\"", Card.class));
+        assertEquals(tenOfSpades, objectMapper.readValue("\"TS\"", Card.class));
+        assertEquals(queenOfHearts, objectMapper.readValue("{\"suit\":\"Hearts\",\"rank\":\"Queen\"}", Card.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"QX\"", Card.class));
+        assertEquals(Cards.NO_CARD, Cards.codeOf("1H"));
+    }
+}
@@ -0,0 +1,212 @@
+package com.acme.carddeckservice.controller;
+
+import com.acme.carddeckservice.codec.CardBinaryCodec;
+import com.acme.carddeckservice.events.DeckEvents;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.DeckResponseCache;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.RequestIdGenerator;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CardDeckController.class)
+class CardDeckControllerTest {
+    private static final String DECKS = "/api/cards-service/decks";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void dealAndReturnCard() throws Exception {
+        String deckId = newDeck();
+        String card = mockMvc.perform(get(DECKS + "/{deckId}/deal", deckId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post(DECKS + "/{deckId}/cards", deckId).contentType(MediaType.APPLICATION_JSON).content(card))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post(DECKS + "/{deckId}/cards", deckId).contentType(MediaType.APPLICATION_JSON).content(card))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_type").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void pagesOfDeckIds() throws Exception {
+        mockMvc.perform(post(DECKS + "/batch?count=4")).andExpect(status().isCreated());
+        List<?> all = objectMapper.readValue(mockMvc.perform(get(DECKS))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CardDeckController.X_NEXT_CURSOR))
+                .andReturn().getResponse().getContentAsString(), List.class);
+
+        MockHttpServletResponse first = mockMvc.perform(get(DECKS + "?limit=2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals(all.subList(0, 2), objectMapper.readValue(first.getContentAsString(), List.class));
+        assertEquals(all.get(1), first.getHeader(CardDeckController.X_NEXT_CURSOR));
+        MockHttpServletResponse second = mockMvc.perform(get(DECKS + "?limit=2&cursor=" + all.get(1)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals(all.subList(2, 4), objectMapper.readValue(second.getContentAsString(), List.class));
+    }
+
+    @Test
+    void pageWithCursorOnly() throws Exception {
+        mockMvc.perform(post(DECKS + "/batch?count=1001")).andExpect(status().isCreated());
+        // Deck IDs sort by length first, so "0" comes before every ID
+        MockHttpServletResponse page = mockMvc.perform(get(DECKS + "?cursor=0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        List<?> deckIds = objectMapper.readValue(page.getContentAsString(), List.class);
+        assertEquals(1000, deckIds.size());
+        assertEquals(deckIds.get(999), page.getHeader(CardDeckController.X_NEXT_CURSOR));
+    }
+
+    @Test
+    void unchangedDeckIsNotSentAgain() throws Exception {
+        String deckId = newDeck();
+        String eTag = mockMvc.perform(get(DECKS + "/{deckId}", deckId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(DECKS + "/{deckId}", deckId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        mockMvc.perform(get(DECKS + "/{deckId}/deal", deckId)).andExpect(status().isOk());
+        mockMvc.perform(get(DECKS + "/{deckId}", deckId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(51));
+    }
+
+    @Test
+    void compactWireFormat() throws Exception {
+        String deckId = newDeck();
+        byte[] deck = mockMvc.perform(get(DECKS + "/{deckId}", deckId).accept(CardBinaryCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CardBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(1 + deckId.length() + 2 + 52, deck.length);
+
+        byte[] card = mockMvc.perform(get(DECKS + "/{deckId}/deal", deckId).accept(CardBinaryCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CardBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(new byte[]{deck[1 + deckId.length() + 2]}, card);
+        mockMvc.perform(post(DECKS + "/{deckId}/cards", deckId).contentType(CardBinaryCodec.MEDIA_TYPE).content(card))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void operationsNeedTheExpectedVersion() throws Exception {
+        String deckId = newDeck();
+        String ops = "{\"expectedVersion\":%d,\"ops\":[{\"op\":\"shuffle\"},{\"op\":\"deal\",\"count\":2}]}";
+
+        mockMvc.perform(post(DECKS + "/{deckId}/ops", deckId).contentType(MediaType.APPLICATION_JSON)
+                        .content(ops.formatted(5)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error_type").value("PRECONDITION_FAILED"));
+        mockMvc.perform(post(DECKS + "/{deckId}/ops", deckId).contentType(MediaType.APPLICATION_JSON)
+                        .content(ops.formatted(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(jsonPath("$.results[1].cards.length()").value(2));
+    }
+
+    @Test
+    void streamDeckEventsUntilDeleted() throws Exception {
+        String deckId = newDeck();
+        MvcResult stream = mockMvc.perform(get(DECKS + "/{deckId}/events", deckId).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(get(DECKS + "/{deckId}/deal", deckId)).andExpect(status().isOk());
+        mockMvc.perform(delete(DECKS + "/{deckId}", deckId)).andExpect(status().isNoContent());
+
+        String events = awaitContent(stream.getResponse(), "event:deleted");
+        assertTrue(events.startsWith("id:0\nevent:sync\n"), events);
+        assertTrue(events.contains("id:1\nevent:dealt\n"), events);
+        assertTrue(events.contains("id:1\nevent:deleted\ndata:{\"version\":1}\n"), events);
+        mockMvc.perform(get(DECKS + "/{deckId}/events", deckId)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void errorsAreJson() throws Exception {
+        mockMvc.perform(get(DECKS + "/missing").header(CardDeckController.X_REQUEST_ID, "r1"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(CardDeckController.X_REQUEST_ID, "r1"))
+                .andExpect(jsonPath("$.error_code").value("404 NOT_FOUND"))
+                .andExpect(jsonPath("$.error_type").value("RESOURCE_NOT_FOUND"))
+                .andExpect(jsonPath("$.error_message").value("Deck not found"));
+        mockMvc.perform(post(DECKS + "/batch"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String newDeck() throws Exception {
+        String deck = mockMvc.perform(get(DECKS + "/new"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(deck).get("id").asText();
+    }
+
+    /**
+     * Events are written to the response by the stream's writer thread
+     */
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+
+    /**
+     * The services the controller works with, without the rest of the application
+     */
+    @TestConfiguration
+    static class Decks {
+
+        @Bean
+        DeckEvents deckEvents() {
+            return new DeckEvents(64, Duration.ofMinutes(1), 1);
+        }
+
+        @Bean
+        DeckResponseCache deckResponseCache(ObjectMapper objectMapper) {
+            return new DeckResponseCache(objectMapper, 1 << 20);
+        }
+
+        @Bean
+        CardDeckService cardDeckService(DeckEvents deckEvents, DeckResponseCache deckResponseCache) {
+            return new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(),
+                    List.of(deckEvents, deckResponseCache));
+        }
+
+        @Bean
+        RequestIdGenerator requestIdGenerator() {
+            return new RequestIdGenerator("");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.acme.carddeckservice.controller;
+
+import com.acme.carddeckservice.events.DeckEventSubscription;
+import com.acme.carddeckservice.events.DeckEvents;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseEmitterSinkTest {
+    private DeckEvents deckEvents;
+    private CardDeckService cardDeckService;
+
+    @BeforeEach
+    void setUp() {
+        // A single shared thread, so a blocked write would hold up every other stream
+        deckEvents = new DeckEvents(4, Duration.ofMinutes(1), 1);
+        cardDeckService = new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of(deckEvents));
+    }
+
+    @AfterEach
+    void tearDown() {
+        deckEvents.close();
+    }
+
+    @Test
+    void slowSubscriberIsResyncedWithoutHoldingUpOthers() throws Exception {
+        Deck slowDeck = cardDeckService.createNewDeck();
+        Deck fastDeck = cardDeckService.createNewDeck();
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        stream(slowDeck, slow);
+        stream(fastDeck, fast);
+        assertTrue(fast.take().contains("event:sync"));
+
+        for (int i = 0; i < 10; i++) {
+            cardDeckService.dealCard(slowDeck.getId());
+        }
+        cardDeckService.dealCard(fastDeck.getId());
+        assertTrue(fast.take().contains("event:dealt"));
+
+        slow.gate.countDown();
+        assertTrue(slow.take().contains("event:sync"));
+        String resync = slow.take();
+        assertTrue(resync.startsWith("id:10\nevent:sync\n"), resync);
+        assertEquals(1, deckEvents.resyncCount());
+    }
+
+    @Test
+    void completesAfterTheLastWrite() throws Exception {
+        Deck deck = cardDeckService.createNewDeck();
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        stream(deck, emitter);
+        assertTrue(emitter.take().contains("event:sync"));
+
+        cardDeckService.deleteDeck(deck.getId());
+        assertTrue(emitter.take().contains("event:deleted"));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, deckEvents.subscriberCount());
+    }
+
+    private void stream(Deck deck, SseEmitter emitter) {
+        DeckEventSubscription subscription = deckEvents.subscribe(cardDeckService, deck.getId());
+        subscription.start(new SseEmitterSink(emitter, subscription, deckEvents.writers()));
+    }
+
+    /**
+     * Records the events written, blocking every write until the gate opens like a client that does not read
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch gate;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            events.add(builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String take() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No event");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.acme.carddeckservice.error;
+
+import com.acme.carddeckservice.utils.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorBodyTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesSameJsonAsErrorResponse() throws Exception {
+        ErrorResponse expected = new ErrorResponse(HttpStatus.BAD_REQUEST.toString(), Constants.INVALID_REQUEST,
+                "Invalid suit: \"Stars\"\n", 1700000000000L);
+        byte[] json = ErrorBody.of(HttpStatus.BAD_REQUEST, Constants.INVALID_REQUEST, expected.getMessage())
+                .toJson(expected.getTimestamp());
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(expected)), objectMapper.readTree(json));
+        assertEquals(expected, objectMapper.readValue(json, ErrorResponse.class));
+    }
+
+    @Test
+    void sharesBodiesOfSharedStacklessExceptions() {
+        ErrorBody body = ErrorBody.shared(NotFoundException.DECK_NOT_FOUND);
+        assertEquals(HttpStatus.NOT_FOUND, body.status());
+        assertSame(body, ErrorBody.shared(NotFoundException.DECK_NOT_FOUND));
+        assertNull(ErrorBody.shared(new NotFoundException("Deck not found")));
+
+        assertEquals(0, NotFoundException.DECK_EMPTY.getStackTrace().length);
+        assertEquals(0, new InvalidInputException("Invalid card").getStackTrace().length);
+    }
+}
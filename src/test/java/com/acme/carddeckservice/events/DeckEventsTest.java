@@ -0,0 +1,130 @@
+package com.acme.carddeckservice.events;
+
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckEventsTest {
+    private DeckEvents deckEvents;
+    private CardDeckService cardDeckService;
+
+    @BeforeEach
+    void setUp() {
+        deckEvents = new DeckEvents(4, Duration.ofMinutes(1), 2);
+        cardDeckService = new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of(deckEvents));
+    }
+
+    @AfterEach
+    void tearDown() {
+        deckEvents.close();
+    }
+
+    @Test
+    void startsWithWholeDeckThenSendsChanges() throws Exception {
+        Deck deck = cardDeckService.createNewDeck();
+        Card top = cardDeckService.dealCard(deck.getId());
+        CollectingSink sink = new CollectingSink();
+        deckEvents.subscribe(cardDeckService, deck.getId()).start(sink);
+
+        DeckEvent sync = sink.take();
+        assertEquals(DeckEvent.SYNC, sync.type());
+        assertEquals(1, sync.version());
+        assertTrue(sync.data().startsWith("{\"version\":1,\"remaining\":51,\"cards\":[\""), sync.data());
+
+        List<Card> dealt = cardDeckService.dealCards(deck.getId(), 2);
+        cardDeckService.tryReturn(deck.getId(), top);
+        cardDeckService.shuffleDeck(deck.getId());
+        String codes = "[\"" + shortCode(dealt.get(0)) + "\",\"" + shortCode(dealt.get(1)) + "\"]";
+        assertEquals(new DeckEvent(DeckEvent.DEALT, 3, "{\"version\":3,\"remaining\":49,\"cards\":" + codes + "}"), sink.take());
+        assertEquals(new DeckEvent(DeckEvent.RETURNED, 4,
+                "{\"version\":4,\"remaining\":50,\"cards\":[\"" + shortCode(top) + "\"]}"), sink.take());
+        assertEquals(new DeckEvent(DeckEvent.SHUFFLED, 5, "{\"version\":5,\"remaining\":50}"), sink.take());
+        assertEquals(1, deckEvents.subscriberCount());
+    }
+
+    @Test
+    void resyncsSubscriberThatFellBehind() throws Exception {
+        Deck deck = cardDeckService.createNewDeck();
+        CollectingSink sink = new CollectingSink();
+        DeckEventSubscription subscription = deckEvents.subscribe(cardDeckService, deck.getId());
+        subscription.start(sink);
+        assertEquals(DeckEvent.SYNC, sink.take().type());
+
+        sink.ready = false;
+        for (int i = 0; i < 10; i++) {
+            cardDeckService.dealCard(deck.getId());
+        }
+        sink.ready = true;
+        subscription.request();
+
+        DeckEvent sync = sink.take();
+        assertEquals(DeckEvent.SYNC, sync.type());
+        assertEquals(10, sync.version());
+        assertEquals(1, deckEvents.resyncCount());
+        cardDeckService.dealCard(deck.getId());
+        assertEquals(11, sink.take().version());
+    }
+
+    @Test
+    void endsStreamWhenDeckIsDeleted() throws Exception {
+        Deck deck = cardDeckService.createNewDeck();
+        CollectingSink sink = new CollectingSink();
+        deckEvents.subscribe(cardDeckService, deck.getId()).start(sink);
+        assertEquals(DeckEvent.SYNC, sink.take().type());
+        cardDeckService.dealCard(deck.getId());
+        cardDeckService.deleteDeck(deck.getId());
+
+        assertEquals(DeckEvent.DEALT, sink.take().type());
+        assertEquals(DeckEvent.DELETED, sink.take().type());
+        assertTrue(sink.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, deckEvents.subscriberCount());
+        assertThrows(NotFoundException.class, () -> deckEvents.subscribe(cardDeckService, deck.getId()));
+    }
+
+    private static String shortCode(Card card) {
+        return Cards.shortCode(card.getIndex());
+    }
+
+    private static class CollectingSink implements DeckEventSink {
+        private final BlockingQueue<DeckEvent> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean ready = true;
+
+        @Override
+        public boolean ready() {
+            return ready;
+        }
+
+        @Override
+        public void send(DeckEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        DeckEvent take() throws InterruptedException {
+            DeckEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No event");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.acme.carddeckservice.filter;
+
+import com.acme.carddeckservice.cluster.ShardRebalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterSecretFilterTest {
+    private final ClusterSecretFilter filter = new ClusterSecretFilter("s3cret");
+
+    @Test
+    void clusterRequestsNeedTheSecret() throws Exception {
+        assertEquals(401, filter("POST", ShardRebalancer.TRANSFER_PATH, null).getStatus());
+        assertEquals(401, filter("GET", "/api/cards-service/cluster", "guess").getStatus());
+        MockHttpServletResponse rejected = filter("PUT", "/api/cards-service/cluster/nodes/n3", "s3cre");
+        assertEquals(401, rejected.getStatus());
+        assertTrue(rejected.getContentAsString().contains("\"error_type\":\"UNAUTHORIZED\""));
+
+        assertEquals(200, filter("POST", ShardRebalancer.TRANSFER_PATH, "s3cret").getStatus());
+        assertEquals(200, filter("GET", "/api/cards-service/decks/count", null).getStatus());
+    }
+
+    @Test
+    void withoutSecretNothingGetsThrough() throws Exception {
+        ClusterSecretFilter unset = new ClusterSecretFilter("");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards-service/cluster");
+        request.addHeader(ShardRebalancer.X_CLUSTER_SECRET, "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        unset.doFilter(request, response, new MockFilterChain());
+        assertEquals(401, response.getStatus());
+    }
+
+    private MockHttpServletResponse filter(String method, String path, String secret) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (secret != null) {
+            request.addHeader(ShardRebalancer.X_CLUSTER_SECRET, secret);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,65 @@
+package com.acme.carddeckservice.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckTest {
+
+    @Test
+    void serializesLikeCardList() throws Exception {
+        Deck deck = new Deck("1", new CompactDeck(), new ReentrantLock());
+        JsonNode json = new ObjectMapper().valueToTree(deck);
+        assertEquals("1", json.get("id").asText());
+        assertEquals(52, json.get("cards").size());
+        assertEquals("Hearts", json.get("cards").get(0).get("suit").asText());
+        assertEquals("2", json.get("cards").get(0).get("rank").asText());
+        assertEquals(2, json.size());
+    }
+
+    @Test
+    void dealAndReturnWrapAround() {
+        CompactDeck deck = new CompactDeck();
+        int top = deck.deal();
+        assertEquals(0, top);
+        assertFalse(deck.contains(top));
+        deck.add(top);
+        assertTrue(deck.contains(top));
+        List<Card> cards = deck.toCards();
+        assertEquals(52, cards.size());
+        assertSame(Cards.of(top), cards.get(51));
+        assertEquals(52, new HashSet<>(cards).size());
+    }
+
+    @Test
+    void cardCodes() {
+        for (int code = 0; code < Cards.DECK_SIZE; code++) {
+            Card card = Cards.of(code);
+            assertEquals(code, Cards.codeOf(card));
+            assertSame(card, Card.of(new String(card.getSuit()), new String(card.getRank())));
+        }
+        Card invalid = Card.of("Stars", "2");
+        assertEquals(Cards.NO_CARD, Cards.codeOf(invalid));
+        assertFalse(invalid.isValid());
+        assertEquals(invalid, Card.of("Stars", "2"));
+        assertEquals(Cards.NO_CARD, Cards.codeOf(Card.of("Hearts", "1")));
+        assertEquals(Cards.NO_CARD, Cards.codeOf(Card.of(null, "Ace")));
+    }
+
+    @Test
+    void restoreRejectsWhatIsNotInADeck() {
+        CompactDeck shoe = CompactDeck.restore(2, new byte[]{5, 5, 51}, 3, 7);
+        assertEquals(3, shoe.size());
+        assertEquals(7, shoe.version());
+        assertThrows(IllegalArgumentException.class, () -> CompactDeck.restore(1, new byte[]{52}, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> CompactDeck.restore(1, new byte[]{-1}, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> CompactDeck.restore(1, new byte[]{5, 5}, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> CompactDeck.restore(1, new byte[]{5}, 1, -1));
+    }
+}
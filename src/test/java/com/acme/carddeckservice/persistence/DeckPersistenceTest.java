@@ -0,0 +1,139 @@
+package com.acme.carddeckservice.persistence;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.service.CardDeckService;
+import com.acme.carddeckservice.service.FastShuffleStrategy;
+import com.acme.carddeckservice.service.SequenceDeckIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckPersistenceTest {
+    // Small segments, so the journal spans several files
+    private static final long SEGMENT_SIZE = 64 * DeckJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversDecksFromJournal() throws Exception {
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService service = newService(persistence);
+        changeDecks(service, 0);
+        persistence.destroy();
+
+        assertSameDecks(service, recover());
+    }
+
+    @Test
+    void recoversDecksFromSnapshotAndJournal() throws Exception {
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService service = newService(persistence);
+        changeDecks(service, 0);
+        persistence.snapshot(service);
+        changeDecks(service, 20);
+        persistence.destroy();
+
+        assertSameDecks(service, recover());
+    }
+
+    @Test
+    void recoveredServiceKeepsJournaling() throws Exception {
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        changeDecks(newService(persistence), 0);
+        persistence.destroy();
+
+        persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService service = newService(persistence);
+        persistence.recover(service);
+        changeDecks(service, 20);
+        persistence.destroy();
+
+        assertSameDecks(service, recover());
+    }
+
+    @Test
+    void recoversAdoptedDecksWithTheirOrderAndVersion() throws Exception {
+        CardDeckService sender = new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of());
+        Deck handedOver = sender.createNewShoe(2);
+        sender.shuffleDeck(handedOver.getId());
+        sender.dealCards(handedOver.getId(), 9);
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService service = newService(persistence);
+        assertTrue(service.adoptDeck(handedOver.getId(), sender.releaseDeck(handedOver)));
+        service.dealCards(handedOver.getId(), 2);
+        persistence.destroy();
+
+        Deck recovered = recover().getDeck(handedOver.getId());
+        Deck adopted = service.getDeck(handedOver.getId());
+        assertEquals(adopted.getCards(), recovered.getCards());
+        assertEquals(adopted.getState().version(), recovered.getState().version());
+    }
+
+    @Test
+    void dropsDecksWithGapsInTheJournal() throws Exception {
+        DeckJournal journal = new DeckJournal(directory, SEGMENT_SIZE);
+        journal.appendCreate("gap", 0, 1);
+        journal.appendDeal("gap", 1, 1);
+        journal.appendDeal("gap", 3, 1);
+        journal.appendCreate("bad-code", 0, 1);
+        journal.appendReturn("bad-code", 1, 60);
+        journal.appendAdopt("bad-adopt", 4, 1, new byte[]{7, 7}, 2);
+        journal.appendCreate("kept", 0, 1);
+        journal.appendDeal("kept", 2, 2);
+        byte[] reversed = new byte[50];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = (byte) (51 - i);
+        }
+        journal.appendShuffle("kept", 3, reversed, 50);
+        journal.close();
+
+        CardDeckService service = recover();
+
+        assertEquals(List.of("kept"), service.getAllDeckIds());
+        assertEquals(Cards.of(51), service.getDeck("kept").getCards().get(0));
+        assertEquals(3, service.getDeck("kept").getState().version());
+    }
+
+    private CardDeckService recover() throws Exception {
+        DeckPersistence persistence = new DeckPersistence(directory, SEGMENT_SIZE);
+        CardDeckService service = newService(persistence);
+        persistence.recover(service);
+        return service;
+    }
+
+    private static CardDeckService newService(DeckPersistence persistence) {
+        return new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of(persistence));
+    }
+
+    private static void changeDecks(CardDeckService service, int seed) {
+        for (int i = 0; i < 20; i++) {
+            Deck deck = i % 5 == 0 ? service.createNewShoe(2) : service.createNewDeck();
+            service.shuffleDeck(deck.getId());
+            List<Card> dealt = service.dealCards(deck.getId(), 1 + (seed + i) % 7);
+            service.returnCard(deck.getId(), dealt.get(0));
+            if (i % 3 == 0) {
+                service.shuffleDeck(deck.getId());
+            }
+            if (i % 4 == 1) {
+                service.deleteDeck(deck.getId());
+            }
+        }
+    }
+
+    private static void assertSameDecks(CardDeckService expected, CardDeckService actual) {
+        assertEquals(cardsById(expected), cardsById(actual));
+    }
+
+    private static Map<String, List<Card>> cardsById(CardDeckService service) {
+        return service.getAllDecks().values().stream().collect(Collectors.toMap(Deck::getId, Deck::getCards));
+    }
+}
@@ -0,0 +1,121 @@
+package com.acme.carddeckservice.reactive;
+
+import com.acme.carddeckservice.codec.CardBinaryCodec;
+import com.acme.carddeckservice.model.Card;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class CardDeckRouterTest {
+    private static final String DECKS = "/api/cards-service/decks";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void dealAndReturnCard() {
+        Map<?, ?> deck = webTestClient.get().uri(DECKS + "/new").exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("X-Request-ID")
+                .expectBody(Map.class).returnResult().getResponseBody();
+        String deckId = (String) deck.get("id");
+        assertEquals(52, ((List<?>) deck.get("cards")).size());
+
+        Card card = webTestClient.get().uri(DECKS + "/{deckId}/deal", deckId).exchange()
+                .expectStatus().isOk()
+                .expectBody(Card.class).returnResult().getResponseBody();
+
+        webTestClient.post().uri(DECKS + "/{deckId}/cards", deckId)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(card).exchange()
+                .expectStatus().isNoContent();
+        webTestClient.post().uri(DECKS + "/{deckId}/cards", deckId)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(card).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error_type").isEqualTo("INVALID_REQUEST");
+    }
+
+    @Test
+    void streamDeckEventsUntilDeleted() {
+        String deckId = webTestClient.get().uri(DECKS + "/new").exchange()
+                .expectBody(Map.class).returnResult().getResponseBody().get("id").toString();
+        var events = webTestClient.get().uri(DECKS + "/{deckId}/events", deckId)
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                }).getResponseBody();
+        webTestClient.get().uri(DECKS + "/{deckId}/deal", deckId).exchange().expectStatus().isOk();
+        webTestClient.delete().uri(DECKS + "/{deckId}", deckId).exchange().expectStatus().isNoContent();
+
+        List<ServerSentEvent<String>> received = events.collectList().block(Duration.ofSeconds(5));
+        assertEquals("sync", received.get(0).event());
+        assertEquals("deleted", received.get(received.size() - 1).event());
+        assertEquals("{\"version\":1}", received.get(received.size() - 1).data());
+        webTestClient.get().uri(DECKS + "/{deckId}/events", deckId).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void compactWireFormat() {
+        String deckId = webTestClient.get().uri(DECKS + "/new").exchange()
+                .expectBody(Map.class).returnResult().getResponseBody().get("id").toString();
+        byte[] deck = webTestClient.get().uri(DECKS + "/{deckId}", deckId).accept(CardBinaryCodec.MEDIA_TYPE).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(CardBinaryCodec.MEDIA_TYPE)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals(1 + deckId.length() + 2 + 52, deck.length);
+
+        byte[] card = webTestClient.get().uri(DECKS + "/{deckId}/deal", deckId).accept(CardBinaryCodec.MEDIA_TYPE).exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertArrayEquals(new byte[]{deck[1 + deckId.length() + 2]}, card);
+        webTestClient.post().uri(DECKS + "/{deckId}/cards", deckId)
+                .contentType(CardBinaryCodec.MEDIA_TYPE).bodyValue(card).exchange()
+                .expectStatus().isNoContent();
+
+        Card dealt = webTestClient.get().uri(DECKS + "/{deckId}/deal", deckId).exchange()
+                .expectBody(Card.class).returnResult().getResponseBody();
+        String shortCode = (dealt.getRank().length() > 2 ? dealt.getRank().substring(0, 1) : dealt.getRank())
+                + dealt.getSuit().charAt(0);
+        webTestClient.post().uri(DECKS + "/{deckId}/cards", deckId)
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("\"" + shortCode + "\"").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void pageWithCursorOnly() {
+        webTestClient.post().uri(DECKS + "/batch?count=1001").exchange().expectStatus().isCreated();
+        // Deck IDs sort by length first, so "0" comes before every ID
+        var page = webTestClient.get().uri(DECKS + "?cursor=0").exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<List<String>>() {
+                }).returnResult();
+        List<String> deckIds = page.getResponseBody();
+        assertEquals(1000, deckIds.size());
+        assertEquals(deckIds.get(999), page.getResponseHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void errorsMatchServletStack() {
+        webTestClient.get().uri(DECKS + "/missing").header("X-Request-ID", "r1").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().valueEquals("X-Request-ID", "r1")
+                .expectBody()
+                .jsonPath("$.error_code").isEqualTo("404 NOT_FOUND")
+                .jsonPath("$.error_type").isEqualTo("RESOURCE_NOT_FOUND")
+                .jsonPath("$.error_message").isEqualTo("Deck not found");
+        webTestClient.post().uri(DECKS + "/batch").exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,99 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.Cards;
+import com.acme.carddeckservice.model.Deck;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardDeckServiceConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentDealersNeverLoseOrDuplicateCards() throws Exception {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        ConcurrentLinkedQueue<Card> dealt = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(() -> {
+            Optional<Card> card;
+            while ((card = cardDeckService.tryDeal(deck.getId())).isPresent()) {
+                dealt.add(card.get());
+            }
+        });
+
+        assertEquals(Cards.DECK_SIZE, dealt.size());
+        assertEquals(Cards.DECK_SIZE, new HashSet<>(dealt).size());
+        assertTrue(deck.getCards().isEmpty());
+    }
+
+    @Test
+    void concurrentDealAndReturnKeepsEveryCardExactlyOnce() throws Exception {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                Optional<Card> card = cardDeckService.tryDeal(deck.getId());
+                if (card.isPresent()) {
+                    assertTrue(cardDeckService.tryReturn(deck.getId(), card.get()));
+                }
+                if (i % 1000 == 0) {
+                    cardDeckService.shuffleDeck(deck.getId());
+                }
+            }
+        });
+
+        List<Card> cards = deck.getCards();
+        assertEquals(Cards.DECK_SIZE, cards.size());
+        assertEquals(Cards.DECK_SIZE, new HashSet<>(cards).size());
+    }
+
+    @Test
+    void cardCanOnlyBeReturnedOnce() throws Exception {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        Card card = cardDeckService.dealCard(deck.getId());
+        AtomicInteger returned = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (cardDeckService.tryReturn(deck.getId(), card)) {
+                returned.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, returned.get());
+        assertEquals(Cards.DECK_SIZE, deck.getCards().size());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Future<?>> futures = new HashSet<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
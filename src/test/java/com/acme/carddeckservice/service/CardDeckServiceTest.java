@@ -1,13 +1,19 @@
 package com.acme.carddeckservice.service;
 
+import com.acme.carddeckservice.error.InvalidInputException;
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.error.PreconditionFailedException;
 import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.CompactDeck;
 import com.acme.carddeckservice.model.Deck;
+import com.acme.carddeckservice.model.DeckOperations;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -34,6 +40,27 @@ class CardDeckServiceTest {
         assertEquals(52, deck.getCards().size());
     }
 
+    @Test
+    void createShoe() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck shoe = cardDeckService.createNewShoe(6);
+        assertEquals(6 * 52, shoe.getCards().size());
+        Card card = cardDeckService.dealCard(shoe.getId());
+        assertFalse(cardDeckService.tryReturn(shoe.getId(), Card.of("Spades", "Ace")));
+        assertTrue(cardDeckService.tryReturn(shoe.getId(), card));
+        assertFalse(cardDeckService.tryReturn(shoe.getId(), card));
+        assertThrows(InvalidInputException.class, () -> cardDeckService.createNewShoe(9));
+    }
+
+    @Test
+    void createDecks() {
+        CardDeckService cardDeckService = new CardDeckService();
+        List<Deck> decks = cardDeckService.createNewDecks(100, 1);
+        assertEquals(100, decks.size());
+        assertEquals(100, cardDeckService.getAllDeckIds().size());
+        assertThrows(InvalidInputException.class, () -> cardDeckService.createNewDecks(0, 1));
+    }
+
     @Test
     void getAllDecks() {
         CardDeckService cardDeckService = new CardDeckService();
@@ -70,6 +97,44 @@ class CardDeckServiceTest {
         assertEquals(52, deck.getCards().size());
     }
 
+    @Test
+    void dealCards() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        List<Card> cards = cardDeckService.dealCards(deck.getId(), 5);
+        assertEquals(5, cards.size());
+        assertEquals(47, deck.getCards().size());
+        assertThrows(NotFoundException.class, () -> cardDeckService.dealCards(deck.getId(), 48));
+        assertEquals(47, deck.getCards().size());
+        InvalidInputException e = assertThrows(InvalidInputException.class, () -> cardDeckService.dealCards(deck.getId(), 0));
+        assertEquals("Number of cards to deal must be positive", e.getMessage());
+    }
+
+    @Test
+    void dealHands() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        List<Card> top = deck.getCards().subList(0, 4);
+        List<List<Card>> hands = cardDeckService.dealHands(deck.getId(), 2, 2);
+        assertEquals(List.of(top.get(0), top.get(2)), hands.get(0));
+        assertEquals(List.of(top.get(1), top.get(3)), hands.get(1));
+        assertEquals(48, deck.getCards().size());
+        assertThrows(NotFoundException.class, () -> cardDeckService.dealHands(deck.getId(), 2_000_000_000, 1));
+        assertThrows(NotFoundException.class, () -> cardDeckService.dealCards(deck.getId(), Integer.MAX_VALUE));
+        assertEquals(48, deck.getCards().size());
+    }
+
+    @Test
+    void getDealtCards() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        assertTrue(cardDeckService.getDealtCards(deck.getId()).isEmpty());
+        Card card = cardDeckService.dealCard(deck.getId());
+        assertEquals(List.of(card), cardDeckService.getDealtCards(deck.getId()));
+        cardDeckService.returnCard(deck.getId(), card);
+        assertTrue(cardDeckService.getDealtCards(deck.getId()).isEmpty());
+    }
+
     @Test
     void shuffleDeck() {
         CardDeckService cardDeckService = new CardDeckService();
@@ -80,6 +145,108 @@ class CardDeckServiceTest {
         assertNotEquals(originalCards, shuffledCards);
     }
 
+    @Test
+    void seededShuffleIsReproducible() {
+        CardDeckService first = new CardDeckService(new SequenceDeckIdGenerator(), new SeededShuffleStrategy(7), List.of());
+        CardDeckService second = new CardDeckService(new SequenceDeckIdGenerator(), new SeededShuffleStrategy(7), List.of());
+        Deck firstDeck = first.createNewDeck();
+        Deck secondDeck = second.createNewDeck();
+        first.shuffleDeck(firstDeck.getId());
+        second.shuffleDeck(secondDeck.getId());
+        assertEquals(firstDeck.getCards(), secondDeck.getCards());
+    }
+
+    @Test
+    void applyOperationsLikeSingleOperations() {
+        List<String> changes = new ArrayList<>();
+        DeckChangeListener recorder = new DeckChangeListener() {
+            @Override
+            public void cardsDealt(Deck deck, List<Card> cards) {
+                changes.add("dealt " + cards.size() + " at " + deck.getState().version());
+            }
+
+            @Override
+            public void cardReturned(Deck deck, Card card) {
+                changes.add("returned at " + deck.getState().version());
+            }
+
+            @Override
+            public void deckShuffled(Deck deck) {
+                changes.add("shuffled at " + deck.getState().version());
+            }
+        };
+        CardDeckService batched = new CardDeckService(new SequenceDeckIdGenerator(), new SeededShuffleStrategy(7), List.of(recorder));
+        CardDeckService single = new CardDeckService(new SequenceDeckIdGenerator(), new SeededShuffleStrategy(7), List.of());
+        Deck batchedDeck = batched.createNewDeck();
+        Deck singleDeck = single.createNewDeck();
+
+        single.shuffleDeck(singleDeck.getId());
+        List<Card> firstDeal = single.dealCards(singleDeck.getId(), 10);
+        single.returnCard(singleDeck.getId(), firstDeal.get(0));
+        List<Card> secondDeal = single.dealCards(singleDeck.getId(), 2);
+        DeckOperations.Response response = batched.applyOperations(batchedDeck.getId(), new DeckOperations.Request(0L, List.of(
+                new DeckOperations.Operation("shuffle", null, null),
+                new DeckOperations.Operation("deal", 10, null),
+                new DeckOperations.Operation("return", null, firstDeal.get(0)),
+                new DeckOperations.Operation("deal", 2, null))));
+
+        assertEquals(14, response.version());
+        assertEquals(List.of(new DeckOperations.Result("shuffle", null), new DeckOperations.Result("deal", firstDeal),
+                new DeckOperations.Result("return", null), new DeckOperations.Result("deal", secondDeal)), response.results());
+        assertEquals(singleDeck.getCards(), batchedDeck.getCards());
+        assertEquals(List.of("shuffled at 1", "dealt 10 at 11", "returned at 12", "dealt 2 at 14"), changes);
+    }
+
+    @Test
+    void failedOperationsLeaveDeckUnchanged() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        String deckId = deck.getId();
+        DeckOperations.Operation dealTwo = new DeckOperations.Operation("deal", 2, null);
+        DeckOperations.Operation returnAce = new DeckOperations.Operation("return", null, Card.of("Spades", "Ace"));
+
+        assertThrows(InvalidInputException.class, () -> cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(null, List.of(dealTwo, returnAce))));
+        assertThrows(NotFoundException.class, () -> cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(null, List.of(dealTwo, new DeckOperations.Operation("deal", 51, null)))));
+        assertThrows(PreconditionFailedException.class, () -> cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(3L, List.of(dealTwo))));
+        assertThrows(InvalidInputException.class, () -> cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(null, List.of(new DeckOperations.Operation("cut", null, null)))));
+        assertThrows(InvalidInputException.class, () -> cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(null, List.of())));
+        assertEquals(0, deck.getState().version());
+        assertEquals(52, deck.getCards().size());
+
+        DeckOperations.Response response = cardDeckService.applyOperations(deckId,
+                new DeckOperations.Request(0L, List.of(new DeckOperations.Operation("deal", null, null))));
+        assertEquals(1, response.version());
+        assertEquals(List.of(Card.of("Hearts", "2")), response.results().get(0).cards());
+    }
+
+    @Test
+    void deleteDeck() {
+        CardDeckService cardDeckService = new CardDeckService();
+        Deck deck = cardDeckService.createNewDeck();
+        cardDeckService.deleteDeck(deck.getId());
+        assertFalse(cardDeckService.deckExists(deck.getId()));
+        assertThrows(NotFoundException.class, () -> cardDeckService.deleteDeck(deck.getId()));
+    }
+
+    @Test
+    void getDeckIdsPageByPage() {
+        // One stripe, so the IDs are 1 to 25 whatever the number of processors
+        CardDeckService cardDeckService = new CardDeckService(new SequenceDeckIdGenerator(1), new FastShuffleStrategy(), List.of());
+        cardDeckService.createNewDecks(25, 1);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), cardDeckService.getDeckIds(null, 10));
+        cardDeckService.deleteDeck("12");
+        assertEquals(List.of("11", "13", "14"), cardDeckService.getDeckIds("10", 3));
+        assertEquals(List.of("25"), cardDeckService.getDeckIds("24", 10));
+        assertEquals(List.of(), cardDeckService.getDeckIds("25", 10));
+        assertEquals(24, cardDeckService.getDeckCount());
+        assertThrows(InvalidInputException.class, () -> cardDeckService.getDeckIds(null, 0));
+    }
+
     @Test
     void deckExists() {
         CardDeckService cardDeckService = new CardDeckService();
@@ -96,4 +263,35 @@ class CardDeckServiceTest {
         assertEquals(1, deckIds.size());
     }
 
+    @Test
+    void releaseDeckToAnotherPartitionedService() {
+        PartitionedDeckStore store = new PartitionedDeckStore(16, deckId -> Math.floorMod(deckId.hashCode(), 16));
+        CardDeckService source = new CardDeckService(store, new SequenceDeckIdGenerator(), new FastShuffleStrategy(),
+                List.of(), DeckLifecycle.unbounded(), DeckMetrics.disabled());
+        Deck deck = source.createNewShoe(2);
+        Card dealt = source.dealCard(deck.getId());
+        assertEquals(List.of(deck), List.copyOf(store.decksIn(Math.floorMod(deck.getId().hashCode(), 16))));
+        assertEquals(1, source.getAllDecks().size());
+        assertSame(deck, source.getAllDecks().get(deck.getId()));
+
+        CardDeckService target = new CardDeckService();
+        assertTrue(target.adoptDeck(deck.getId(), source.releaseDeck(deck)));
+        assertNull(source.releaseDeck(deck));
+        assertFalse(source.deckExists(deck.getId()));
+        assertEquals(List.of(), source.getAllDeckIds());
+        assertEquals(List.of(dealt), target.getDealtCards(deck.getId()));
+        assertEquals(103, target.getDeck(deck.getId()).getState().size());
+    }
+
+    @Test
+    void rejectsDeckIdsThatDoNotFitTheJournal() {
+        CardDeckService cardDeckService = new CardDeckService();
+        String longId = "x".repeat(Deck.MAX_ID_LENGTH + 1);
+        assertThrows(InvalidInputException.class, () -> cardDeckService.adoptDeck(longId, new CompactDeck()));
+        assertFalse(cardDeckService.deckExists(longId));
+
+        CardDeckService misconfigured = new CardDeckService(() -> longId, new FastShuffleStrategy(), List.of());
+        assertThrows(IllegalStateException.class, misconfigured::createNewDeck);
+        assertEquals(0, misconfigured.getDeckCount());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.cluster.DeckCluster;
+import com.acme.carddeckservice.cluster.ShardRing;
+import com.acme.carddeckservice.cluster.ShardedDeckIdGenerator;
+import com.acme.carddeckservice.model.Deck;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckIdGeneratorTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void sequenceIdsAreUniqueAcrossThreads() throws Exception {
+        assertUnique(new SequenceDeckIdGenerator());
+    }
+
+    @Test
+    void timeOrderedIdsAreUniqueAcrossThreads() throws Exception {
+        assertUnique(new TimeOrderedDeckIdGenerator());
+    }
+
+    @Test
+    void nodeIdsAreUniqueAcrossThreads() throws Exception {
+        assertUnique(new NodeDeckIdGenerator("n1"));
+    }
+
+    @Test
+    void timeOrderedIdsSortByCreationTime() throws Exception {
+        TimeOrderedDeckIdGenerator generator = new TimeOrderedDeckIdGenerator();
+        String first = generator.nextId();
+        Thread.sleep(2);
+        String second = generator.nextId();
+        assertEquals(26, first.length());
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    void nodeIdsCarryTheNodePrefix() {
+        assertTrue(new NodeDeckIdGenerator("n7").nextId().startsWith("n7-"));
+        assertThrows(IllegalArgumentException.class, () -> new NodeDeckIdGenerator("n-7"));
+    }
+
+    @Test
+    void nodeIdsMustLeaveRoomForTheSequenceAndShard() {
+        DeckCluster cluster = new DeckCluster("n1", ShardRing.parse("n1=http://localhost:8081", 256));
+        String nodeId = "n".repeat(15);
+        // "73-" for 256 shards, 15 + "-" and 13 base 36 digits is 32 characters
+        assertEquals(Deck.MAX_ID_LENGTH, new ShardedDeckIdGenerator(new NodeDeckIdGenerator(nodeId), cluster).maxLength());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedDeckIdGenerator(new NodeDeckIdGenerator(nodeId + "n"), cluster));
+        assertThrows(IllegalArgumentException.class, () -> new NodeDeckIdGenerator("n".repeat(19)));
+    }
+
+    @Test
+    void requestIdsAreUniqueAcrossThreadsAndRuns() throws Exception {
+        RequestIdGenerator generator = new RequestIdGenerator("n1");
+        assertUnique(generator::nextId);
+        assertTrue(generator.nextId().startsWith("n1."));
+        assertNotEquals(new RequestIdGenerator("").nextId(), new RequestIdGenerator("").nextId());
+    }
+
+    private static void assertUnique(DeckIdGenerator generator) throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+}
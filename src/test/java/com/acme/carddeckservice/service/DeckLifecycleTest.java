@@ -0,0 +1,114 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.CompactDeck;
+import com.acme.carddeckservice.model.Deck;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckLifecycleTest {
+    private final Map<String, Deck> decks = new HashMap<>();
+
+    @Test
+    void expiresDecksIdleForTtl() {
+        DeckLifecycle lifecycle = new DeckLifecycle(Duration.ofSeconds(10), 0, Duration.ofSeconds(1));
+        Deck idle = track(lifecycle, "idle");
+        Deck used = track(lifecycle, "used");
+
+        advance(lifecycle, 5);
+        lifecycle.touch(used);
+        advance(lifecycle, 10);
+        assertFalse(decks.containsKey("idle"));
+        assertTrue(decks.containsKey("used"));
+
+        advance(lifecycle, 15);
+        assertFalse(decks.containsKey("used"));
+        assertEquals(2, lifecycle.expiredCount());
+        assertEquals(0, idle.getTouched());
+    }
+
+    @Test
+    void evictsLeastRecentlyTouchedDeck() {
+        DeckLifecycle lifecycle = new DeckLifecycle(Duration.ZERO, 2, Duration.ofSeconds(1));
+        Deck first = track(lifecycle, "first");
+        advance(lifecycle, 1);
+        track(lifecycle, "second");
+        advance(lifecycle, 2);
+        lifecycle.touch(first);
+
+        assertTrue(lifecycle.evict(this::remove));
+        assertEquals(List.of("first"), List.copyOf(decks.keySet()));
+        assertEquals(1, lifecycle.evictedCount());
+    }
+
+    @Test
+    void evictsDecksIdleForMoreThanOneWheelTurnFirst() {
+        DeckLifecycle lifecycle = new DeckLifecycle(Duration.ZERO, 2, Duration.ofSeconds(1));
+        track(lifecycle, "old");
+        Deck recent = track(lifecycle, "recent");
+        advance(lifecycle, 100);
+        lifecycle.touch(recent);
+        advance(lifecycle, 1000);
+
+        assertTrue(lifecycle.evict(this::remove));
+        assertEquals(List.of("recent"), List.copyOf(decks.keySet()));
+    }
+
+    @Test
+    void deletedDecksAreSkipped() {
+        DeckLifecycle lifecycle = new DeckLifecycle(Duration.ZERO, 1, Duration.ofSeconds(1));
+        Deck deleted = track(lifecycle, "deleted");
+        track(lifecycle, "kept");
+        remove(deleted);
+
+        assertFalse(lifecycle.evict(deck -> false));
+        assertEquals(0, lifecycle.evictedCount());
+    }
+
+    @Test
+    void untrackedDecksAreReleasedRightAway() {
+        DeckLifecycle lifecycle = new DeckLifecycle(Duration.ZERO, 10, Duration.ofSeconds(1));
+        Deck idle = track(lifecycle, "idle");
+        advance(lifecycle, 100);
+        Deck filed = track(lifecycle, "filed");
+        assertEquals(2, lifecycle.trackedCount());
+
+        remove(idle);
+        lifecycle.untrack(idle);
+        remove(filed);
+        lifecycle.untrack(filed);
+        assertEquals(0, lifecycle.trackedCount());
+    }
+
+    @Test
+    void unboundedLifecycleTracksNothing() {
+        DeckLifecycle lifecycle = DeckLifecycle.unbounded();
+        assertFalse(lifecycle.isEnabled());
+        Deck deck = track(lifecycle, "deck");
+        advance(lifecycle, 1000);
+        assertTrue(decks.containsKey("deck"));
+        assertFalse(lifecycle.evict(this::remove));
+        assertEquals(0, deck.getTouched());
+    }
+
+    private Deck track(DeckLifecycle lifecycle, String deckId) {
+        Deck deck = new Deck(deckId, new CompactDeck(), new ReentrantLock());
+        decks.put(deckId, deck);
+        lifecycle.track(deck);
+        return deck;
+    }
+
+    private void advance(DeckLifecycle lifecycle, long tick) {
+        lifecycle.advance(tick, deck -> decks.get(deck.getId()) == deck, this::remove);
+    }
+
+    private boolean remove(Deck deck) {
+        return decks.remove(deck.getId(), deck);
+    }
+}
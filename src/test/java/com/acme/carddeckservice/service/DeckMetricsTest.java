@@ -0,0 +1,89 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.error.NotFoundException;
+import com.acme.carddeckservice.model.Card;
+import com.acme.carddeckservice.model.CompactDeck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DeckMetrics metrics = new DeckMetrics(registry);
+    private final CardDeckService service = new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(),
+            List.of(metrics), DeckLifecycle.unbounded(), metrics);
+
+    @Test
+    void timesOperationsByOutcome() {
+        String deckId = service.createNewDeck().getId();
+        service.dealCards(deckId, 52);
+        assertTrue(service.tryDeal(deckId).isEmpty());
+        assertThrows(NotFoundException.class, () -> service.dealCards(deckId, 1));
+        assertTrue(service.tryReturn(deckId, Card.of("Hearts", "Queen")));
+        assertFalse(service.tryReturn(deckId, Card.of("Hearts", "Queen")));
+        service.shuffleDeck(deckId);
+        assertThrows(NotFoundException.class, () -> service.shuffleDeck("missing"));
+
+        assertEquals(1, count("create", "ok"));
+        assertEquals(1, count("deal", "ok"));
+        assertEquals(2, count("deal", "empty"));
+        assertEquals(1, count("return", "ok"));
+        assertEquals(1, count("return", "rejected"));
+        assertEquals(1, count("shuffle", "ok"));
+    }
+
+    @Test
+    void tracksCardsAndDecksByCardsRemaining() {
+        String full = service.createNewDeck().getId();
+        String shoe = service.createNewShoe(2).getId();
+        service.dealCards(full, 50);
+        service.restoreDeck("restored", new CompactDeck());
+
+        assertEquals(2 + 104 + 52, metrics.cards());
+        assertEquals(1, remaining("5"));
+        assertEquals(2, remaining("52"));
+        assertEquals(3, remaining("+Inf"));
+
+        service.deleteDeck(shoe);
+        service.deleteDeck("restored");
+        service.tryReturn(full, service.getDealtCards(full).get(0));
+        assertEquals(3, metrics.cards());
+        assertEquals(1, remaining("5"));
+        assertEquals(1, remaining("+Inf"));
+    }
+
+    @Test
+    void countsWaitsForBusyLocks() throws InterruptedException {
+        StripedLocks locks = new StripedLocks(1);
+        Lock lock = locks.lockFor("deck");
+        lock.lock();
+        Thread waiter = new Thread(() -> {
+            lock.lock();
+            lock.unlock();
+        });
+        waiter.start();
+        while (!((ReentrantLock) lock).hasQueuedThreads()) {
+            Thread.onSpinWait();
+        }
+        lock.unlock();
+        waiter.join();
+
+        lock.lock();
+        lock.unlock();
+        assertEquals(1, locks.contendedCount());
+        assertTrue(locks.waitNanos() > 0);
+    }
+
+    private long count(String operation, String outcome) {
+        return registry.get("card.deck.operations").tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+
+    private double remaining(String le) {
+        return registry.get("card.deck.remaining").tag("le", le).gauge().value();
+    }
+}
@@ -0,0 +1,61 @@
+package com.acme.carddeckservice.service;
+
+import com.acme.carddeckservice.model.Deck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckResponseCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DeckResponseCache cache;
+    private CardDeckService cardDeckService;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DeckResponseCache(objectMapper, 1 << 20);
+        cardDeckService = new CardDeckService(new SequenceDeckIdGenerator(), new FastShuffleStrategy(), List.of(cache));
+    }
+
+    @Test
+    void servesSameBytesUntilDeckChanges() throws Exception {
+        Deck deck = cardDeckService.createNewDeck();
+        DeckResponseCache.DeckResponse first = cache.get(deck);
+        assertArrayEquals(objectMapper.writeValueAsBytes(deck), first.json().bytes());
+        assertSame(first, cache.get(deck));
+
+        cardDeckService.dealCard(deck.getId());
+        DeckResponseCache.DeckResponse dealt = cache.get(deck);
+        assertNotEquals(first.json().eTag(), dealt.json().eTag());
+        assertNotEquals(first.binary().eTag(), dealt.binary().eTag());
+        assertArrayEquals(objectMapper.writeValueAsBytes(deck), dealt.json().bytes());
+        assertEquals(3 + deck.getId().length() + 51, dealt.binary().bytes().length);
+    }
+
+    @Test
+    void doesNotServeDeletedDeck() {
+        Deck deck = cardDeckService.createNewDeck();
+        DeckResponseCache.DeckResponse deleted = cache.get(deck);
+        cardDeckService.deleteDeck(deck.getId());
+
+        Deck restored = cardDeckService.restoreDeck(deck.getId(), deck.getState());
+        assertNotSame(deleted, cache.get(restored));
+    }
+
+    @Test
+    void matchesIfNoneMatch() {
+        DeckResponseCache.DeckResponse response = cache.get(cardDeckService.createNewDeck());
+        DeckResponseCache.Body json = response.json();
+        String eTag = json.eTag();
+        assertFalse(response.binary().matches(eTag));
+        assertTrue(json.matches(eTag));
+        assertTrue(json.matches("W/" + eTag));
+        assertTrue(json.matches("\"other\", " + eTag));
+        assertTrue(json.matches("*"));
+        assertFalse(json.matches("\"other\""));
+        assertFalse(json.matches(null));
+    }
+}